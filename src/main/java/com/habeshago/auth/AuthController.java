@@ -11,6 +11,7 @@ import com.habeshago.common.SecurityAuditLogger;
 import com.habeshago.config.RetentionConfig;
 import com.habeshago.request.ItemRequestRepository;
 import com.habeshago.trip.TripRepository;
+import com.habeshago.trip.TripService;
 import com.habeshago.user.DeletionReason;
 import com.habeshago.user.User;
 import com.habeshago.user.UserDto;
@@ -39,6 +40,7 @@ public class AuthController {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final TripRepository tripRepository;
+    private final TripService tripService;
     private final ItemRequestRepository itemRequestRepository;
     private final WebAuthService webAuthService;
     private final RateLimitService rateLimitService;
@@ -52,6 +54,7 @@ public class AuthController {
             JwtService jwtService,
             UserRepository userRepository,
             TripRepository tripRepository,
+            TripService tripService,
             ItemRequestRepository itemRequestRepository,
             WebAuthService webAuthService,
             RateLimitService rateLimitService,
@@ -63,6 +66,7 @@ public class AuthController {
         this.jwtService = jwtService;
         this.userRepository = userRepository;
         this.tripRepository = tripRepository;
+        this.tripService = tripService;
         this.itemRequestRepository = itemRequestRepository;
         this.webAuthService = webAuthService;
         this.rateLimitService = rateLimitService;
@@ -384,6 +388,7 @@ public class AuthController {
         }
 
         userRepository.save(user);
+        tripService.syncOwnerListing(user);
 
         // Update OAuth tracking
         oAuthIdRecordRepository.findByGoogleId(googleUser.googleId()).ifPresent(record -> {
@@ -473,6 +478,7 @@ public class AuthController {
         }
 
         userRepository.save(user);
+        tripService.syncOwnerListing(user);
 
         // Update OAuth tracking
         oAuthIdRecordRepository.findByTelegramUserId(telegramUser.telegramUserId()).ifPresent(record -> {
@@ -119,6 +119,10 @@ public class AuthInterceptor implements HandlerInterceptor {
             return !path.startsWith("/api/auth/link-") && !path.startsWith("/api/auth/unlink-");
         }
         return path.equals("/api/trips/search") ||
+               path.startsWith("/api/trips/search/") ||
+               path.startsWith("/api/trips/routes/") ||
+               path.startsWith("/api/trips/cities/") ||
+               path.equals("/api/trips/connections") ||
                path.startsWith("/api/travelers/") ||
                path.equals("/api/health") ||
                path.equals("/actuator/health") ||
@@ -0,0 +1,53 @@
+package com.habeshago.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Local stand-in for replication: copies the H2 primary (schema and data) into the separate H2
+ * replica database once at startup, after Hibernate has created the schema and seed data has
+ * been loaded. Nothing is copied afterwards, so the replica behaves like one that stopped
+ * replaying at startup and reads routed to the wrong pool show up as missing data.
+ *
+ * Dev only; enabled by {@code habeshago.datasource.replica.seed-from-primary}.
+ */
+public class H2ReplicaSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(H2ReplicaSeeder.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public H2ReplicaSeeder(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    // Before the other startup listeners, which may already read on the replica
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void seed() throws SQLException {
+        int statements = 0;
+        try (Connection source = primary.getConnection();
+             Connection target = replica.getConnection();
+             Statement read = source.createStatement();
+             Statement write = target.createStatement();
+             ResultSet script = read.executeQuery("SCRIPT")) {
+            while (script.next()) {
+                write.execute(script.getString(1));
+                statements++;
+            }
+        }
+        log.info("Seeded the H2 replica from the primary ({} statements)", statements);
+    }
+}
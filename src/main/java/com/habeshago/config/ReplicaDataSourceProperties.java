@@ -0,0 +1,74 @@
+package com.habeshago.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection settings for the optional read replica. Routing is enabled only when
+ * {@code habeshago.datasource.replica.url} is set; see {@link ReadReplicaConfig}.
+ * Pool settings go under {@code habeshago.datasource.replica.hikari.*}.
+ */
+@ConfigurationProperties(prefix = "habeshago.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * JDBC URL of the replica. Empty disables routing.
+     */
+    private String url;
+
+    /**
+     * Defaults to spring.datasource.username.
+     */
+    private String username;
+
+    /**
+     * Defaults to spring.datasource.password.
+     */
+    private String password;
+
+    /**
+     * Defaults to spring.datasource.driver-class-name.
+     */
+    private String driverClassName;
+
+    /**
+     * Replication lag above which read-only transactions fall back to the primary.
+     * Default: 5 seconds
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Query returning the replica's lag in seconds (null counts as no lag).
+     * Default reports 0 while the replica has replayed everything it received, so an idle
+     * primary does not look like lag.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * Dev only: copy the H2 primary into the H2 replica once at startup, see {@link H2ReplicaSeeder}.
+     */
+    private boolean seedFromPrimary;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public String getDriverClassName() { return driverClassName; }
+    public void setDriverClassName(String driverClassName) { this.driverClassName = driverClassName; }
+
+    public Duration getMaxLag() { return maxLag; }
+    public void setMaxLag(Duration maxLag) { this.maxLag = maxLag; }
+
+    public String getLagQuery() { return lagQuery; }
+    public void setLagQuery(String lagQuery) { this.lagQuery = lagQuery; }
+
+    public boolean isSeedFromPrimary() { return seedFromPrimary; }
+    public void setSeedFromPrimary(boolean seedFromPrimary) { this.seedFromPrimary = seedFromPrimary; }
+}
@@ -0,0 +1,72 @@
+package com.habeshago.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replication lag so {@link ReplicaRoutingDataSource} can send reads to
+ * the primary while the replica is behind or unreachable.
+ *
+ * Until the first successful check the replica counts as unusable. The last measured lag is
+ * published as {@code datasource.replica.lag} (seconds, NaN when unreachable).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+    private boolean checked;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(2);
+        this.lagQuery = properties.getLagQuery();
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+        Gauge.builder("datasource.replica.lag", this, m -> m.lagSeconds)
+                .baseUnit("seconds")
+                .description("Replication lag of the read replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${habeshago.datasource.replica.lag-check-ms:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        boolean first = !checked;
+        checked = true;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag != null ? Math.max(0, lag) : 0;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (Exception e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable || first) {
+                log.warn("Read replica unreachable, routing reads to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (usable != wasUsable || first) {
+            if (usable) {
+                log.info("Read replica in use (lag {}s)", lagSeconds);
+            } else {
+                log.warn("Read replica lag {}s exceeds {}s, routing reads to the primary", lagSeconds, maxLagSeconds);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.habeshago.config;
 
 import com.habeshago.auth.AuthInterceptor;
+import com.habeshago.idempotency.IdempotencyInterceptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.*;
@@ -9,18 +10,23 @@ import org.springframework.web.servlet.config.annotation.*;
 public class WebConfig implements WebMvcConfigurer {
 
     private final AuthInterceptor authInterceptor;
+    private final IdempotencyInterceptor idempotencyInterceptor;
 
     @Value("${habeshago.cors.allowed-origins:*}")
     private String allowedOrigins;
 
-    public WebConfig(AuthInterceptor authInterceptor) {
+    public WebConfig(AuthInterceptor authInterceptor, IdempotencyInterceptor idempotencyInterceptor) {
         this.authInterceptor = authInterceptor;
+        this.idempotencyInterceptor = idempotencyInterceptor;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/api/**");
+        // After auth: idempotency keys are scoped to the current user
+        registry.addInterceptor(idempotencyInterceptor)
+                .addPathPatterns("/api/**");
     }
 
     @Override
@@ -0,0 +1,36 @@
+package com.habeshago.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Chooses the {@link IdempotencyStore}: {@code habeshago.idempotency.store=memory} (default) keeps
+ * keys in this instance only; {@code jdbc} shares them between instances through the database.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "habeshago.idempotency.store", havingValue = "jdbc")
+    public JdbcIdempotencyStore jdbcIdempotencyStore(
+            DataSource dataSource,
+            @Value("${habeshago.idempotency.ttl:24h}") Duration ttl,
+            @Value("${habeshago.idempotency.lease:60s}") Duration lease) {
+        return new JdbcIdempotencyStore(dataSource, ttl, lease);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "habeshago.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public InMemoryIdempotencyStore inMemoryIdempotencyStore(
+            @Value("${habeshago.idempotency.ttl:24h}") Duration ttl,
+            @Value("${habeshago.idempotency.max-keys:100000}") long maxKeys,
+            MeterRegistry meterRegistry) {
+        return new InMemoryIdempotencyStore(ttl, maxKeys, meterRegistry);
+    }
+}
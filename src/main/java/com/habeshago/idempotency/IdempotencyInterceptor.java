@@ -0,0 +1,155 @@
+package com.habeshago.idempotency;
+
+import com.habeshago.auth.AuthInterceptor;
+import com.habeshago.common.BadRequestException;
+import com.habeshago.common.ConflictException;
+import com.habeshago.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Makes mutating requests that carry an {@code Idempotency-Key} header safe to retry.
+ *
+ * Runs after {@link AuthInterceptor}; keys are scoped to the authenticated user, and
+ * unauthenticated requests are not covered. The first request with a key runs normally and its
+ * response is stored with a fingerprint of the method, path, query and body. Responses a retry
+ * could change (5xx, and 408, 409, 425 and 429, e.g. an optimistic-lock conflict) are not stored;
+ * the key is released so the client can retry it.
+ * A retry with the same key and fingerprint gets the stored response, marked with
+ * {@code Idempotent-Replayed: true}, without reaching the controller. Reusing a key for a
+ * different request is a 400, and a retry while the first request is still running a 409.
+ * Replays are counted as {@code idempotency.replays}.
+ */
+@Component
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyInterceptor.class);
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    // Client errors that may succeed when retried: timeout, conflict, too early, rate limited
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(408, 409, 425, 429);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String RESERVATION_ATTR = IdempotencyInterceptor.class.getName() + ".reservation";
+
+    private final IdempotencyStore store;
+    private final Counter replays;
+
+    public IdempotencyInterceptor(IdempotencyStore store, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.replays = Counter.builder("idempotency.replays")
+                .description("Requests answered from a stored Idempotency-Key response")
+                .register(meterRegistry);
+    }
+
+    static boolean applies(HttpServletRequest request) {
+        String key = request.getHeader(HEADER);
+        return key != null && !key.isBlank() && MUTATING_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!applies(request)) {
+            return true;
+        }
+        User user = AuthInterceptor.getCurrentUser(request);
+        if (user == null) {
+            return true;
+        }
+        String key = request.getHeader(HEADER).trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = user.getId() + ":" + key;
+        String fingerprint = fingerprint(request);
+        Optional<IdempotencyStore.IdempotencyRecord> existing = store.reserve(scopedKey, fingerprint);
+        if (existing.isEmpty()) {
+            request.setAttribute(RESERVATION_ATTR, new Reservation(scopedKey, fingerprint));
+            return true;
+        }
+
+        IdempotencyStore.IdempotencyRecord record = existing.get();
+        if (!record.fingerprint().equals(fingerprint)) {
+            throw new BadRequestException(HEADER + " was already used for a different request");
+        }
+        if (record.inProgress()) {
+            throw new ConflictException("A request with this " + HEADER + " is still being processed");
+        }
+        IdempotencyStore.StoredResponse stored = record.response();
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.getOutputStream().write(stored.body());
+        replays.increment();
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(RESERVATION_ATTR) instanceof Reservation reservation)) {
+            return;
+        }
+        try {
+            ContentCachingResponseWrapper cached =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (ex == null && cached != null && isFinal(response.getStatus())) {
+                store.complete(reservation.key(), reservation.fingerprint(), new IdempotencyStore.StoredResponse(
+                        response.getStatus(), response.getContentType(), cached.getContentAsByteArray()));
+            } else {
+                store.release(reservation.key());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record {} response: {}", HEADER, e.getMessage());
+        }
+    }
+
+    private static boolean isFinal(int status) {
+        return status < 500 && !RETRYABLE_STATUSES.contains(status);
+    }
+
+    private static String fingerprint(HttpServletRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            IdempotencyFilter.CachedBodyRequest cached =
+                    WebUtils.getNativeRequest(request, IdempotencyFilter.CachedBodyRequest.class);
+            if (cached != null) {
+                digest.update(cached.getBody());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Reservation(String key, String fingerprint) {}
+}
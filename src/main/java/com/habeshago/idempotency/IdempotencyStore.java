@@ -0,0 +1,35 @@
+package com.habeshago.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Remembers, per {@code Idempotency-Key}, the fingerprint of the first request and the response
+ * it produced, for a bounded time.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claim {@code key} for a request with this fingerprint.
+     * @return empty if the caller now owns the key and must {@link #complete} or {@link #release} it;
+     *         otherwise the record of the earlier request, completed or still in progress
+     */
+    Optional<IdempotencyRecord> reserve(String key, String fingerprint);
+
+    /**
+     * Store the response of a reserved key so later requests with the key replay it.
+     */
+    void complete(String key, String fingerprint, StoredResponse response);
+
+    /**
+     * Give up a reserved key without a response, so the request can be retried.
+     */
+    void release(String key);
+
+    record IdempotencyRecord(String fingerprint, StoredResponse response) {
+        public boolean inProgress() {
+            return response == null;
+        }
+    }
+
+    record StoredResponse(int status, String contentType, byte[] body) {}
+}
@@ -0,0 +1,43 @@
+package com.habeshago.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Single-instance {@link IdempotencyStore} in a bounded Caffeine cache. Keys are forgotten
+ * after the TTL or when the cache is full, whichever comes first; a restart forgets all of them.
+ * Statistics are published to Micrometer as {@code cache.*{cache=idempotency}}.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotencyRecord> cache;
+
+    public InMemoryIdempotencyStore(Duration ttl, long maxKeys, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        return Optional.ofNullable(cache.asMap().putIfAbsent(key, new IdempotencyRecord(fingerprint, null)));
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, StoredResponse response) {
+        cache.put(key, new IdempotencyRecord(fingerprint, response));
+    }
+
+    @Override
+    public void release(String key) {
+        cache.asMap().computeIfPresent(key, (k, record) -> record.inProgress() ? null : record);
+    }
+}
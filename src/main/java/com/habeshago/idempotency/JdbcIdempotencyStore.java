@@ -0,0 +1,95 @@
+package com.habeshago.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link IdempotencyStore} in the {@code idempotency_keys} table (V19), shared by all instances.
+ *
+ * The primary key makes the reservation atomic across instances. A reservation that was never
+ * completed (the instance died mid-request) can be taken over after {@code lease}, and
+ * expired rows are reused on conflict and purged hourly. Statements run outside any
+ * transaction, so a reservation is visible to other instances immediately.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+
+    public JdbcIdempotencyStore(DataSource dataSource, Duration ttl, Duration lease) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Instant now = Instant.now();
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, fingerprint, created_at, expires_at) " +
+                                "VALUES (?, ?, ?, ?)",
+                        key, fingerprint, Timestamp.from(now), Timestamp.from(now.plus(ttl)));
+                return Optional.empty();
+            } catch (DuplicateKeyException e) {
+                List<Row> rows = jdbcTemplate.query("SELECT fingerprint, status_code, content_type, body, created_at, " +
+                                "expires_at FROM idempotency_keys WHERE idempotency_key = ?",
+                        (rs, i) -> new Row(rs.getString(1), (Integer) rs.getObject(2), rs.getString(3),
+                                rs.getString(4), rs.getTimestamp(5).toInstant(), rs.getTimestamp(6).toInstant()),
+                        key);
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                Row row = rows.get(0);
+                boolean expired = row.expiresAt().isBefore(now);
+                boolean abandoned = row.statusCode() == null && row.createdAt().isBefore(now.minus(lease));
+                if (!expired && !abandoned) {
+                    return Optional.of(row.toRecord());
+                }
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND created_at = ?",
+                        key, Timestamp.from(row.createdAt()));
+            }
+        }
+        // Lost the race for a stale row twice; treat the key as busy
+        return Optional.of(new IdempotencyRecord(fingerprint, null));
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, StoredResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status_code = ?, content_type = ?, body = ?, expires_at = ? " +
+                        "WHERE idempotency_key = ? AND fingerprint = ?",
+                response.status(), response.contentType(), new String(response.body(), StandardCharsets.UTF_8),
+                Timestamp.from(Instant.now().plus(ttl)), key, fingerprint);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status_code IS NULL", key);
+    }
+
+    @Scheduled(cron = "0 50 * * * *")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    private record Row(String fingerprint, Integer statusCode, String contentType, String body,
+                       Instant createdAt, Instant expiresAt) {
+        IdempotencyRecord toRecord() {
+            if (statusCode == null) {
+                return new IdempotencyRecord(fingerprint, null);
+            }
+            byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            return new IdempotencyRecord(fingerprint, new StoredResponse(statusCode, contentType, bytes));
+        }
+    }
+}
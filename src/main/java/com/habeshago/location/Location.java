@@ -0,0 +1,22 @@
+package com.habeshago.location;
+
+import java.util.List;
+
+/**
+ * An entry of the bundled location dictionary.
+ * Cities carry their ISO country code, coordinates and serving airport codes;
+ * countries have no coordinates or airports.
+ */
+public record Location(
+        Long id,
+        LocationType type,
+        String name,
+        String countryCode,
+        Double latitude,
+        Double longitude,
+        List<String> airportCodes
+) {
+    public boolean isCountry() {
+        return type == LocationType.COUNTRY;
+    }
+}
@@ -0,0 +1,223 @@
+package com.habeshago.location;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory dictionary of countries, cities and airports, loaded from the bundled
+ * {@code locations/locations.json}.
+ *
+ * Free-text place names are resolved to a stable location id when a trip is saved, so
+ * "Addis", "Addis Ababa", "አዲስ አበባ" and "ADD" all end up as the same id and search can
+ * use equality lookups. Resolution is exact on normalized names, aliases and codes, then on
+ * the {@link SearchKeys} of names and aliases so transliteration variants ("Mek'ele") resolve too;
+ * fuzzy matching stays with {@link com.habeshago.trip.CityNameIndex}.
+ *
+ * Ids are part of the stored data: never renumber existing entries, only add new ones.
+ */
+@Component
+public class LocationDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationDictionary.class);
+
+    private static final String DATASET = "locations/locations.json";
+
+    private final Map<Long, Location> byId = new HashMap<>();
+    private final Map<String, Location> byKey = new HashMap<>();
+    // Names and aliases only: short codes fold into each other ("ET" and "AT" both become "at")
+    private final Map<String, Location> bySearchKey = new HashMap<>();
+    private final Map<String, Location> byAirportCode = new HashMap<>();
+    private final Map<String, Location> countriesByCode = new HashMap<>();
+    private final Map<String, List<Location>> citiesByCountryCode = new HashMap<>();
+
+    public LocationDictionary() {
+        Dataset dataset;
+        try (InputStream in = new ClassPathResource(DATASET).getInputStream()) {
+            dataset = new ObjectMapper()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .readValue(in, Dataset.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load location dataset " + DATASET, e);
+        }
+
+        for (CountryEntry c : dataset.countries()) {
+            Location country = new Location(c.id(), LocationType.COUNTRY, c.name(),
+                    c.code().toUpperCase(Locale.ROOT), null, null, List.of());
+            register(country);
+            countriesByCode.put(country.countryCode(), country);
+            addKey(c.code(), country);
+            addKey(c.name(), country);
+            c.aliasesOrEmpty().forEach(alias -> addKey(alias, country));
+            addSearchKey(c.name(), country);
+            c.aliasesOrEmpty().forEach(alias -> addSearchKey(alias, country));
+        }
+
+        // Cities win over countries for shared keys, so they are indexed after
+        for (CityEntry c : dataset.cities()) {
+            String countryCode = c.country().toUpperCase(Locale.ROOT);
+            if (!countriesByCode.containsKey(countryCode)) {
+                throw new IllegalStateException("City " + c.name() + " references unknown country " + c.country());
+            }
+            List<String> airports = c.airportsOrEmpty().stream().map(a -> a.toUpperCase(Locale.ROOT)).toList();
+            Location city = new Location(c.id(), LocationType.CITY, c.name(), countryCode,
+                    c.lat(), c.lon(), airports);
+            register(city);
+            citiesByCountryCode.computeIfAbsent(countryCode, k -> new ArrayList<>()).add(city);
+            byKey.put(normalize(c.name()), city);
+            c.aliasesOrEmpty().forEach(alias -> byKey.put(normalize(alias), city));
+            bySearchKey.put(SearchKeys.fold(c.name()), city);
+            c.aliasesOrEmpty().forEach(alias -> bySearchKey.put(SearchKeys.fold(alias), city));
+            for (String airport : airports) {
+                byAirportCode.put(airport, city);
+                addKey(airport, city);
+            }
+        }
+
+        log.info("Location dictionary loaded: {} countries, {} cities, {} airports",
+                countriesByCode.size(), byId.size() - countriesByCode.size(), byAirportCode.size());
+    }
+
+    public Optional<Location> findById(Long id) {
+        return Optional.ofNullable(id != null ? byId.get(id) : null);
+    }
+
+    /**
+     * Every normalized lookup key (names, aliases in any script, airport and country codes)
+     * with the location it resolves to.
+     */
+    public Map<String, Location> lookupKeys() {
+        return Collections.unmodifiableMap(byKey);
+    }
+
+    /**
+     * The country a location belongs to (itself for a country).
+     */
+    public Optional<Location> findCountry(Location location) {
+        return Optional.ofNullable(countriesByCode.get(location.countryCode()));
+    }
+
+    public Collection<Location> all() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * Resolve free text (city, alias, airport code or country) to a location.
+     * "City, Country" input is resolved by its first part.
+     */
+    public Optional<Location> resolve(String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Location location = byKey.get(key);
+        if (location == null && key.contains(",")) {
+            key = normalize(key.substring(0, key.indexOf(',')));
+            location = byKey.get(key);
+        }
+        if (location == null) {
+            location = bySearchKey.get(SearchKeys.fold(key));
+        }
+        return Optional.ofNullable(location);
+    }
+
+    /**
+     * Location id to store for one end of a trip: the airport's city, else the named city,
+     * else the country when only the country is known. Returns null if nothing resolves.
+     */
+    public Long resolveTripLocation(String city, String country, String airportCode) {
+        if (airportCode != null && !airportCode.isBlank()) {
+            Location byAirport = byAirportCode.get(airportCode.trim().toUpperCase(Locale.ROOT));
+            if (byAirport != null) {
+                return byAirport.id();
+            }
+        }
+        Optional<Location> countryLocation = resolve(country).filter(Location::isCountry);
+        Optional<Location> cityLocation = resolve(city);
+        if (cityLocation.isPresent()) {
+            Location found = cityLocation.get();
+            // A city name given with a different country is a different place (e.g. a namesake)
+            boolean countryConflict = !found.isCountry() && countryLocation.isPresent()
+                    && !countryLocation.get().countryCode().equals(found.countryCode());
+            if (!countryConflict) {
+                return found.id();
+            }
+        }
+        return countryLocation.map(Location::id).orElse(null);
+    }
+
+    /**
+     * Ids that a search for this location should match: the city itself, or for a
+     * country the country id plus every city in it.
+     */
+    public Set<Long> expand(Location location) {
+        if (!location.isCountry()) {
+            return Set.of(location.id());
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        ids.add(location.id());
+        for (Location city : citiesByCountryCode.getOrDefault(location.countryCode(), List.of())) {
+            ids.add(city.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Matching key: trimmed, lower case, single spaces, no dots ("D.C." = "dc").
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT).replace(".", "").replaceAll("\\s+", " ");
+    }
+
+    private void register(Location location) {
+        if (byId.putIfAbsent(location.id(), location) != null) {
+            throw new IllegalStateException("Duplicate location id " + location.id());
+        }
+    }
+
+    private void addKey(String text, Location location) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            byKey.put(key, location);
+        }
+    }
+
+    private void addSearchKey(String text, Location location) {
+        String key = SearchKeys.fold(text);
+        if (!key.isEmpty()) {
+            bySearchKey.put(key, location);
+        }
+    }
+
+    private record Dataset(List<CountryEntry> countries, List<CityEntry> cities) {}
+
+    private record CountryEntry(Long id, String code, String name, List<String> aliases) {
+        List<String> aliasesOrEmpty() { return aliases != null ? aliases : List.of(); }
+    }
+
+    private record CityEntry(Long id, String name, String country, Double lat, Double lon,
+                             List<String> airports, List<String> aliases) {
+        List<String> aliasesOrEmpty() { return aliases != null ? aliases : List.of(); }
+        List<String> airportsOrEmpty() { return airports != null ? airports : List.of(); }
+    }
+}
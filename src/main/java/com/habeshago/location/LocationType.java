@@ -0,0 +1,6 @@
+package com.habeshago.location;
+
+public enum LocationType {
+    COUNTRY,
+    CITY
+}
@@ -0,0 +1,119 @@
+package com.habeshago.location;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static KD-tree over the dictionary's city coordinates for radius lookups.
+ *
+ * Cities are stored as unit vectors on the sphere, so a great-circle radius becomes a
+ * Euclidean chord bound and the tree needs no special handling at the poles or the
+ * antimeridian. The tree is an implicit balanced layout over one array (the median of
+ * each range is its root), built once at startup; a lookup visits only the branches
+ * that can intersect the query sphere.
+ */
+@Component
+public class NearbyCityIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Location[] cities;
+    private final double[][] points;
+
+    public NearbyCityIndex(LocationDictionary locationDictionary) {
+        List<Location> located = locationDictionary.all().stream()
+                .filter(l -> !l.isCountry() && l.latitude() != null && l.longitude() != null)
+                .toList();
+        this.cities = located.toArray(new Location[0]);
+        this.points = new double[cities.length][];
+        for (int i = 0; i < cities.length; i++) {
+            points[i] = toUnitVector(cities[i].latitude(), cities[i].longitude());
+        }
+        build(0, cities.length, 0);
+    }
+
+    /**
+     * Cities within {@code radiusKm} of the center (including the center itself), nearest first.
+     */
+    public List<NearbyCity> within(Location center, double radiusKm) {
+        if (center.latitude() == null || center.longitude() == null) {
+            return List.of(new NearbyCity(center, 0.0));
+        }
+        double[] q = toUnitVector(center.latitude(), center.longitude());
+        double chord = 2 * Math.sin(Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI) / 2);
+        List<NearbyCity> result = new ArrayList<>();
+        search(0, cities.length, 0, q, chord * chord, result);
+        result.sort(Comparator.comparingDouble(NearbyCity::distanceKm));
+        return result;
+    }
+
+    private void search(int lo, int hi, int depth, double[] q, double maxChord2, List<NearbyCity> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double[] p = points[mid];
+        double dx = p[0] - q[0];
+        double dy = p[1] - q[1];
+        double dz = p[2] - q[2];
+        double chord2 = dx * dx + dy * dy + dz * dz;
+        if (chord2 <= maxChord2) {
+            double distanceKm = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(chord2) / 2));
+            result.add(new NearbyCity(cities[mid], distanceKm));
+        }
+
+        int axis = depth % 3;
+        double delta = q[axis] - p[axis];
+        if (delta <= 0) {
+            search(lo, mid, depth + 1, q, maxChord2, result);
+            if (delta * delta <= maxChord2) {
+                search(mid + 1, hi, depth + 1, q, maxChord2, result);
+            }
+        } else {
+            search(mid + 1, hi, depth + 1, q, maxChord2, result);
+            if (delta * delta <= maxChord2) {
+                search(lo, mid, depth + 1, q, maxChord2, result);
+            }
+        }
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Integer[] order = new Integer[hi - lo];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = lo + i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> points[i][axis]));
+        Location[] sortedCities = new Location[order.length];
+        double[][] sortedPoints = new double[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            sortedCities[i] = cities[order[i]];
+            sortedPoints[i] = points[order[i]];
+        }
+        System.arraycopy(sortedCities, 0, cities, lo, order.length);
+        System.arraycopy(sortedPoints, 0, points, lo, order.length);
+
+        int mid = (lo + hi) >>> 1;
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[] {
+                Math.cos(lat) * Math.cos(lon),
+                Math.cos(lat) * Math.sin(lon),
+                Math.sin(lat)
+        };
+    }
+
+    public record NearbyCity(Location location, double distanceKm) {}
+}
@@ -0,0 +1,123 @@
+package com.habeshago.location;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds place names into a canonical search key, so the spellings people actually type for
+ * the same place compare equal: "Mekelle", "Mekele", "Mek'ele", "MEQELE" and "መቀሌ" all fold
+ * to "makala".
+ *
+ * The pipeline is Unicode NFKC, full case folding, Ge'ez to Latin transliteration, removal of
+ * diacritics and apostrophes, then collapsing of common transliteration variants (q/k, ph/f,
+ * e/a, an unwritten short i, doubled letters). Keys are for matching only and never shown to users.
+ *
+ * Keys are stored on trips (from_city_key, to_city_key) and inside the {@code city:} place keys
+ * of route rollups and route subscriptions: changing the pipeline changes stored data. Rollups
+ * and live subscriptions are rekeyed at startup; trip keys must be recomputed afterwards (clear
+ * the columns and restart, see {@link com.habeshago.trip.TripLocationBackfill}).
+ */
+public final class SearchKeys {
+
+    /** Matches the from_city_key/to_city_key column length. */
+    public static final int MAX_LENGTH = 255;
+
+    private static final int ETHIOPIC_START = 0x1200;
+    private static final int ETHIOPIC_END = 0x137F;
+    // Rows from here on hold irregular syllables, punctuation and numerals, which carry no vowel
+    private static final int FIRST_NON_SYLLABLE_ROW = 43;
+
+    // Consonant of each 8-code-point row of the Ethiopic block, in Unicode order.
+    // Emphatic and archaic consonants fold into their plain Latin spelling.
+    private static final String[] CONSONANTS = {
+            "h", "l", "h", "m", "s", "r", "s", "sh",
+            "q", "q", "q", "q", "b", "v", "t", "ch",
+            "h", "h", "n", "ny", "", "k", "k", "k",
+            "k", "w", "", "z", "zh", "y", "d", "d",
+            "j", "g", "g", "g", "t", "ch", "p", "ts",
+            "ts", "f", "p", "", " ", " ", "", ""
+    };
+
+    // Rows whose syllables are labialized (qwa, hwa, kwa, gwa) and use a different vowel layout
+    private static final boolean[] LABIALIZED = new boolean[CONSONANTS.length];
+
+    static {
+        for (int row : new int[] {9, 11, 17, 22, 24, 34}) {
+            LABIALIZED[row] = true;
+        }
+    }
+
+    // Vowel of each syllable order; the sixth order (ə) is usually silent in Latin spellings
+    private static final String[] VOWELS = {"e", "u", "i", "a", "e", "", "o", "wa"};
+    private static final String[] LABIALIZED_VOWELS = {"we", "", "wi", "wa", "we", "w", "", ""};
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['’‘`ʼʾʿ]");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern DOUBLED = Pattern.compile("([a-z])\\1+");
+    // Ge'ez sixth-order vowel (ə) between consonants is written as i or left out ("Bahir"/"Bahr")
+    private static final Pattern SHORT_I = Pattern.compile("(?<=[b-df-hj-np-tv-z])i(?=[b-df-hj-np-tv-z])");
+
+    // Applied in order; each pair is (spelling, canonical spelling)
+    private static final String[][] VARIANTS = {
+            {"ph", "f"},
+            {"q", "k"},
+            {"kh", "k"},
+            {"dj", "j"},
+            {"ou", "u"},
+            // Ge'ez first-order vowel (ä) is written as either e or a ("Gonder"/"Gondar")
+            {"e", "a"},
+    };
+
+    private SearchKeys() {
+    }
+
+    /**
+     * Canonical search key for a place name; empty for null or blank input.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String value = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        value = transliterate(value);
+        // Upper then lower approximates full case folding (e.g. "ß" -> "ss")
+        value = value.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        value = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        value = APOSTROPHES.matcher(value).replaceAll("");
+        value = NON_ALPHANUMERIC.matcher(value).replaceAll(" ");
+        for (String[] variant : VARIANTS) {
+            value = value.replace(variant[0], variant[1]);
+        }
+        value = SHORT_I.matcher(value).replaceAll("");
+        value = DOUBLED.matcher(value).replaceAll("$1").trim();
+        return value.length() > MAX_LENGTH ? value.substring(0, MAX_LENGTH).trim() : value;
+    }
+
+    /**
+     * Replace Ethiopic syllables with their Latin spelling; other characters are kept.
+     */
+    static String transliterate(String text) {
+        StringBuilder out = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < ETHIOPIC_START || c > ETHIOPIC_END) {
+                if (out != null) {
+                    out.append(c);
+                }
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(text.length() * 2).append(text, 0, i);
+            }
+            int row = (c - ETHIOPIC_START) / 8;
+            int order = (c - ETHIOPIC_START) % 8;
+            out.append(CONSONANTS[row]);
+            if (row < FIRST_NON_SYLLABLE_ROW) {
+                out.append(LABIALIZED[row] ? LABIALIZED_VOWELS[order] : VOWELS[order]);
+            }
+        }
+        return out != null ? out.toString() : text;
+    }
+}
@@ -0,0 +1,29 @@
+package com.habeshago.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-app notifications and outbox entries collected during one operation and inserted
+ * together by {@link NotificationBatchWriter}.
+ */
+public class NotificationBatch {
+
+    private final List<Notification> notifications = new ArrayList<>();
+    private final List<NotificationOutbox> outbox = new ArrayList<>();
+
+    public void add(Notification notification) {
+        notifications.add(notification);
+    }
+
+    public void add(NotificationOutbox entry) {
+        outbox.add(entry);
+    }
+
+    public List<Notification> getNotifications() { return notifications; }
+    public List<NotificationOutbox> getOutbox() { return outbox; }
+
+    public boolean isEmpty() {
+        return notifications.isEmpty() && outbox.isEmpty();
+    }
+}
@@ -0,0 +1,66 @@
+package com.habeshago.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+/**
+ * Inserts a {@link NotificationBatch} with one JDBC batch per table.
+ *
+ * Both tables use identity keys, which stop Hibernate from batching inserts, so the rows are
+ * written with plain JDBC on the current transaction's connection. The entities are not
+ * attached to the persistence context and do not get their ids.
+ */
+@Component
+public class NotificationBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationBatchWriter.class);
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (user_id, type, title, message, action_url, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO notification_outbox (user_id, type, payload, status, retry_count, next_attempt_at, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationBatchWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void write(NotificationBatch batch) {
+        if (!batch.getNotifications().isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, batch.getNotifications(), batch.getNotifications().size(),
+                    (ps, n) -> {
+                        ps.setLong(1, n.getUser().getId());
+                        ps.setString(2, n.getType());
+                        ps.setString(3, n.getTitle());
+                        ps.setString(4, n.getMessage());
+                        ps.setString(5, n.getActionUrl());
+                        ps.setBoolean(6, n.isRead());
+                        ps.setTimestamp(7, Timestamp.from(n.getCreatedAt()));
+                    });
+        }
+        if (!batch.getOutbox().isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX, batch.getOutbox(), batch.getOutbox().size(),
+                    (ps, e) -> {
+                        ps.setLong(1, e.getUser().getId());
+                        ps.setString(2, e.getType());
+                        ps.setString(3, e.getPayload());
+                        ps.setString(4, e.getStatus().name());
+                        ps.setInt(5, e.getRetryCount());
+                        ps.setTimestamp(6, Timestamp.from(e.getNextAttemptAt()));
+                        ps.setTimestamp(7, Timestamp.from(e.getCreatedAt()));
+                        ps.setTimestamp(8, Timestamp.from(e.getUpdatedAt()));
+                    });
+        }
+        log.debug("Wrote {} notifications and {} outbox entries",
+                batch.getNotifications().size(), batch.getOutbox().size());
+    }
+}
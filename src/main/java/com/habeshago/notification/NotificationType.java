@@ -9,5 +9,7 @@ public enum NotificationType {
     REQUEST_CANCELLED,
     TRIP_CANCELLED,
     TRIP_REMINDER,
-    REVIEW_PROMPT
+    REVIEW_PROMPT,
+    SUBSCRIPTION_MATCH,
+    REQUESTS_EXPIRED
 }
@@ -10,6 +10,8 @@ import com.habeshago.request.ItemRequest;
 import com.habeshago.request.ItemRequestRepository;
 import com.habeshago.trip.Trip;
 import com.habeshago.trip.TripRepository;
+import com.habeshago.trip.TripService;
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
 import com.habeshago.user.UserRepository;
 import org.slf4j.Logger;
@@ -37,16 +39,22 @@ public class ReportService {
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final TripRepository tripRepository;
+    private final TripService tripService;
+    private final TravelerRanking travelerRanking;
 
     public ReportService(
             ReportRepository reportRepository,
             UserRepository userRepository,
             ItemRequestRepository itemRequestRepository,
-            TripRepository tripRepository) {
+            TripRepository tripRepository,
+            TripService tripService,
+            TravelerRanking travelerRanking) {
         this.reportRepository = reportRepository;
         this.userRepository = userRepository;
         this.itemRequestRepository = itemRequestRepository;
         this.tripRepository = tripRepository;
+        this.tripService = tripService;
+        this.travelerRanking = travelerRanking;
     }
 
     @Transactional
@@ -120,6 +128,7 @@ public class ReportService {
 
         int newTrustScore = Math.max(0, user.getTrustScore() + penalty);
         user.setTrustScore(newTrustScore);
+        travelerRanking.refresh(user);
 
         // Check if user should be flagged or suspended
         if (newTrustScore < TRUST_THRESHOLD_SUSPEND) {
@@ -127,6 +136,7 @@ public class ReportService {
                 user.setSuspended(true);
                 user.setSuspendedAt(Instant.now());
                 user.setSuspensionReason("Automatic suspension due to low trust score");
+                tripService.syncOwnerListing(user);
                 log.warn("User {} auto-suspended due to trust score dropping to {}", user.getId(), newTrustScore);
             }
         } else if (newTrustScore < TRUST_THRESHOLD_FLAG || user.getReportCount() >= REPORT_COUNT_THRESHOLD_FLAG) {
@@ -0,0 +1,50 @@
+package com.habeshago.request;
+
+import com.habeshago.common.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for the traveler's incoming-requests inbox.
+ * Encodes the (created_at, id) sort key of the last request on a page,
+ * so the next page starts strictly after it.
+ */
+public record IncomingRequestCursor(Instant createdAt, Long id) {
+
+    public static IncomingRequestCursor after(ItemRequest request) {
+        return new IncomingRequestCursor(request.getCreatedAt(), request.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @return null if the token is blank (first page)
+     * @throws BadRequestException if the token is malformed
+     */
+    public static IncomingRequestCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new IncomingRequestCursor(
+                    Instant.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
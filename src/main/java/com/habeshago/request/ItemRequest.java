@@ -11,7 +11,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "item_requests", indexes = {
         @Index(name = "idx_request_trip", columnList = "trip_id"),
-        @Index(name = "idx_request_sender", columnList = "sender_user_id")
+        @Index(name = "idx_request_sender", columnList = "sender_user_id"),
+        @Index(name = "idx_request_traveler_status_created", columnList = "traveler_id,status,created_at,id")
 })
 public class ItemRequest {
 
@@ -27,6 +28,10 @@ public class ItemRequest {
     @JoinColumn(name = "sender_user_id")
     private User senderUser;
 
+    // Denormalized trip owner, so a traveler's incoming requests are one index range
+    @Column(name = "traveler_id", nullable = false, updatable = false)
+    private Long travelerId;
+
     @Column(name = "description", nullable = false, length = 2000)
     private String description;
 
@@ -74,6 +79,11 @@ public class ItemRequest {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Optimistic lock: concurrent read-modify-write of the same row fails instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
@@ -148,4 +158,7 @@ public class ItemRequest {
 
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+    public Long getTravelerId() { return travelerId; }
+    public void setTravelerId(Long travelerId) { this.travelerId = travelerId; }
+    public Long getVersion() { return version; }
 }
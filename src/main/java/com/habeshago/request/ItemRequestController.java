@@ -2,7 +2,10 @@ package com.habeshago.request;
 
 import com.habeshago.auth.AuthInterceptor;
 import com.habeshago.request.dto.ItemRequestCreateRequest;
+import com.habeshago.request.dto.IncomingRequestsPageDto;
 import com.habeshago.request.dto.ItemRequestDto;
+import com.habeshago.request.dto.RequestDecisionRequest;
+import com.habeshago.request.dto.TripRequestsDto;
 import com.habeshago.user.User;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -46,6 +49,26 @@ public class ItemRequestController {
         return ResponseEntity.ok(itemRequestService.getRequestsForTrip(user, tripId));
     }
 
+    // Trip once plus its requests (by traveler)
+    @GetMapping("/trips/{tripId}/requests/overview")
+    public ResponseEntity<TripRequestsDto> getTripWithRequests(
+            HttpServletRequest request,
+            @PathVariable Long tripId) {
+        User user = requireCurrentUser(request);
+        return ResponseEntity.ok(itemRequestService.getTripWithRequests(user, tripId));
+    }
+
+    // Requests across all of the traveler's trips, newest first
+    @GetMapping("/requests/incoming")
+    public ResponseEntity<IncomingRequestsPageDto> getIncomingRequests(
+            HttpServletRequest request,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        User user = requireCurrentUser(request);
+        return ResponseEntity.ok(itemRequestService.getIncomingRequests(user, status, cursor, limit));
+    }
+
     @GetMapping("/requests/my")
     public ResponseEntity<List<ItemRequestDto>> getMyRequests(HttpServletRequest request) {
         User user = requireCurrentUser(request);
@@ -77,6 +100,15 @@ public class ItemRequestController {
         return ResponseEntity.ok(itemRequestService.rejectRequest(user, requestId));
     }
 
+    // Accept or reject several pending requests at once (by traveler)
+    @PostMapping("/requests/decisions")
+    public ResponseEntity<List<ItemRequestDto>> decideRequests(
+            HttpServletRequest request,
+            @Valid @RequestBody RequestDecisionRequest body) {
+        User user = requireCurrentUser(request);
+        return ResponseEntity.ok(itemRequestService.decideRequests(user, body));
+    }
+
     // Cancel request (by sender)
     @PostMapping("/requests/{requestId}/cancel")
     public ResponseEntity<ItemRequestDto> cancelRequest(
@@ -2,12 +2,16 @@ package com.habeshago.request;
 
 import com.habeshago.trip.Trip;
 import com.habeshago.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +27,47 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     List<ItemRequest> findByTripIdAndStatus(Long tripId, RequestStatus status);
 
+    /**
+     * A trip's requests, oldest first, with their senders fetched in the same query.
+     */
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.senderUser WHERE r.trip.id = :tripId " +
+           "ORDER BY r.createdAt ASC, r.id ASC")
+    List<ItemRequest> findByTripIdWithSender(@Param("tripId") Long tripId);
+
+    /**
+     * Pending requests that can no longer be answered: their trip departed before {@code today}
+     * or is no longer open. Trip and sender are fetched for the expiry notification.
+     */
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.trip t JOIN FETCH r.senderUser " +
+           "WHERE r.status = com.habeshago.request.RequestStatus.PENDING " +
+           "AND (t.status <> com.habeshago.trip.TripStatus.OPEN OR t.departureDate < :today) " +
+           "ORDER BY r.id ASC")
+    List<ItemRequest> findOrphanedPending(@Param("today") LocalDate today, Limit limit);
+
+    /**
+     * Requests for a bulk accept/reject, with trip, traveler and sender fetched in the same query.
+     */
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.trip t JOIN FETCH t.user JOIN FETCH r.senderUser " +
+           "WHERE r.id IN :ids ORDER BY r.id ASC")
+    List<ItemRequest> findAllForDecision(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One page of requests on a traveler's trips, newest first, keyset-paginated on
+     * (createdAt, id). Served by idx_request_traveler_status_created.
+     */
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.trip t JOIN FETCH t.user JOIN FETCH r.senderUser " +
+           "WHERE r.travelerId = :travelerId " +
+           "AND (:anyStatus = TRUE OR r.status IN :statuses) " +
+           "AND (:afterCreatedAt IS NULL OR r.createdAt < :afterCreatedAt " +
+           "     OR (r.createdAt = :afterCreatedAt AND r.id < :afterId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ItemRequest> findIncomingPage(@Param("travelerId") Long travelerId,
+                                       @Param("anyStatus") boolean anyStatus,
+                                       @Param("statuses") Collection<RequestStatus> statuses,
+                                       @Param("afterCreatedAt") Instant afterCreatedAt,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+
     // Count delivered requests for a traveler (for reputation)
     @Query("SELECT COUNT(r) FROM ItemRequest r WHERE r.trip.user.id = :travelerId AND r.status = 'DELIVERED'")
     long countDeliveredByTravelerId(@Param("travelerId") Long travelerId);
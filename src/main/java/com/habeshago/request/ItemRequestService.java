@@ -6,44 +6,64 @@ import com.habeshago.common.BadRequestException;
 import com.habeshago.common.ForbiddenException;
 import com.habeshago.common.NotFoundException;
 import com.habeshago.notification.Notification;
+import com.habeshago.notification.NotificationBatch;
+import com.habeshago.notification.NotificationBatchWriter;
 import com.habeshago.notification.NotificationOutbox;
-import com.habeshago.notification.NotificationRepository;
-import com.habeshago.notification.NotificationService;
 import com.habeshago.trip.ContactMethod;
 import com.habeshago.trip.Trip;
+import com.habeshago.trip.TripCapacityLedger;
 import com.habeshago.trip.TripRepository;
+import com.habeshago.trip.TripRequestCounters;
+import com.habeshago.trip.dto.TripDto;
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
-import com.habeshago.user.UserRepository;
+import com.habeshago.user.UserReputationCounters;
 import com.habeshago.request.dto.ItemRequestCreateRequest;
+import com.habeshago.request.dto.IncomingRequestsPageDto;
 import com.habeshago.request.dto.ItemRequestDto;
+import com.habeshago.request.dto.RequestDecisionRequest;
+import com.habeshago.request.dto.TripRequestsDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemRequestService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final ItemRequestRepository itemRequestRepository;
     private final TripRepository tripRepository;
-    private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final NotificationRepository notificationRepository;
+    private final UserReputationCounters userReputationCounters;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final TripRequestCounters tripRequestCounters;
+    private final TripCapacityLedger tripCapacityLedger;
+    private final TravelerRanking travelerRanking;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public ItemRequestService(ItemRequestRepository itemRequestRepository,
                               TripRepository tripRepository,
-                              UserRepository userRepository,
-                              NotificationService notificationService,
-                              NotificationRepository notificationRepository) {
+                              UserReputationCounters userReputationCounters,
+                              NotificationBatchWriter notificationBatchWriter,
+                              TripRequestCounters tripRequestCounters,
+                              TripCapacityLedger tripCapacityLedger,
+                              TravelerRanking travelerRanking) {
         this.itemRequestRepository = itemRequestRepository;
         this.tripRepository = tripRepository;
-        this.userRepository = userRepository;
-        this.notificationService = notificationService;
-        this.notificationRepository = notificationRepository;
+        this.userReputationCounters = userReputationCounters;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.tripRequestCounters = tripRequestCounters;
+        this.tripCapacityLedger = tripCapacityLedger;
+        this.travelerRanking = travelerRanking;
     }
 
     @Transactional
@@ -58,8 +78,15 @@ public class ItemRequestService {
             throw new BadRequestException("Cannot request your own trip");
         }
 
+        // Only a hint: capacity is actually taken when the traveler accepts
+        if (trip.getRemainingWeightKg() != null && req.getWeightKg() != null
+                && req.getWeightKg().compareTo(trip.getRemainingWeightKg()) > 0) {
+            throw new BadRequestException("Item weight exceeds the trip's remaining capacity");
+        }
+
         ItemRequest ir = new ItemRequest();
         ir.setTrip(trip);
+        ir.setTravelerId(trip.getUser().getId());
         ir.setSenderUser(sender);
         ir.setDescription(req.getDescription());
         ir.setWeightKg(req.getWeightKg());
@@ -90,9 +117,12 @@ public class ItemRequestService {
         }
 
         ItemRequest saved = itemRequestRepository.save(ir);
+        tripRequestCounters.transition(trip, null, RequestStatus.PENDING);
 
         // Enqueue notification for traveler
-        sendNewRequestNotification(saved);
+        NotificationBatch notifications = new NotificationBatch();
+        sendNewRequestNotification(saved, notifications);
+        notificationBatchWriter.write(notifications);
 
         return ItemRequestDto.from(saved);
     }
@@ -153,14 +183,77 @@ public class ItemRequestService {
 
     @Transactional(readOnly = true)
     public List<ItemRequestDto> getRequestsForTrip(User currentUser, Long tripId) {
-        Trip trip = tripRepository.findById(tripId)
+        return getTripWithRequests(currentUser, tripId).requests();
+    }
+
+    /**
+     * The traveler's trip with all its requests: one query for the trip and traveler, one for
+     * the requests and senders, however many requests there are.
+     */
+    @Transactional(readOnly = true)
+    public TripRequestsDto getTripWithRequests(User currentUser, Long tripId) {
+        Trip trip = tripRepository.findWithTravelerById(tripId)
                 .orElseThrow(() -> new NotFoundException("Trip not found"));
         if (!trip.getUser().getId().equals(currentUser.getId())) {
             throw new ForbiddenException("Not owner of this trip");
         }
-        return itemRequestRepository.findByTrip(trip).stream()
+        List<ItemRequestDto> requests = itemRequestRepository.findByTripIdWithSender(tripId).stream()
                 .map(ItemRequestDto::from)
                 .toList();
+        return new TripRequestsDto(TripDto.from(trip), requests);
+    }
+
+    /**
+     * Requests across all of the traveler's trips, newest first, optionally limited to some
+     * statuses ({@code status} is a comma-separated list), keyset-paginated by {@code cursor}.
+     */
+    @Transactional(readOnly = true)
+    public IncomingRequestsPageDto getIncomingRequests(User currentUser, String status, String cursor,
+                                                       Integer limit) {
+        EnumSet<RequestStatus> statuses = parseStatuses(status);
+        IncomingRequestCursor after = IncomingRequestCursor.decode(cursor);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        List<ItemRequest> requests = itemRequestRepository.findIncomingPage(
+                currentUser.getId(),
+                statuses.isEmpty(),
+                statuses.isEmpty() ? EnumSet.allOf(RequestStatus.class) : statuses,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                Limit.of(pageSize + 1));
+
+        boolean hasMore = requests.size() > pageSize;
+        List<ItemRequest> page = hasMore ? requests.subList(0, pageSize) : requests;
+        String nextCursor = hasMore ? IncomingRequestCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        Map<Long, TripDto> trips = new LinkedHashMap<>();
+        for (ItemRequest ir : page) {
+            trips.computeIfAbsent(ir.getTrip().getId(), id -> TripDto.from(ir.getTrip()));
+        }
+        return new IncomingRequestsPageDto(
+                page.stream().map(ItemRequestDto::from).toList(),
+                List.copyOf(trips.values()),
+                nextCursor,
+                hasMore);
+    }
+
+    private static EnumSet<RequestStatus> parseStatuses(String status) {
+        EnumSet<RequestStatus> statuses = EnumSet.noneOf(RequestStatus.class);
+        if (status == null || status.isBlank()) {
+            return statuses;
+        }
+        for (String part : status.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            try {
+                statuses.add(RequestStatus.valueOf(part.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown request status: " + part.trim());
+            }
+        }
+        return statuses;
     }
 
     @Transactional(readOnly = true)
@@ -183,22 +276,24 @@ public class ItemRequestService {
             throw new BadRequestException("Can only accept pending requests");
         }
 
+        tripCapacityLedger.reserve(ir);
         ir.setStatus(RequestStatus.ACCEPTED);
         ir.setContactRevealedAt(Instant.now());
         itemRequestRepository.save(ir);
+        tripRequestCounters.transition(ir.getTrip(), RequestStatus.PENDING, RequestStatus.ACCEPTED);
 
         // Increment traveler's accepted requests count (for completion rate tracking)
         User traveler = ir.getTrip().getUser();
-        traveler.setAcceptedRequestsCount(
-                (traveler.getAcceptedRequestsCount() != null ? traveler.getAcceptedRequestsCount() : 0) + 1
-        );
-        userRepository.save(traveler);
+        userReputationCounters.requestsAccepted(traveler, 1);
+        travelerRanking.refresh(traveler);
 
+        NotificationBatch notifications = new NotificationBatch();
         // Send notification to sender with traveler contact info
-        sendRequestAcceptedNotification(ir);
+        sendRequestAcceptedNotification(ir, notifications);
 
         // Send notification to traveler with sender contact info
-        sendRequestAcceptedTravelerNotification(ir);
+        sendRequestAcceptedTravelerNotification(ir, notifications);
+        notificationBatchWriter.write(notifications);
 
         return ItemRequestDto.from(ir);
     }
@@ -218,13 +313,78 @@ public class ItemRequestService {
 
         ir.setStatus(RequestStatus.REJECTED);
         itemRequestRepository.save(ir);
+        tripRequestCounters.transition(ir.getTrip(), RequestStatus.PENDING, RequestStatus.REJECTED);
 
         // Send notification to sender
-        sendRequestRejectedNotification(ir);
+        NotificationBatch notifications = new NotificationBatch();
+        sendRequestRejectedNotification(ir, notifications);
+        notificationBatchWriter.write(notifications);
 
         return ItemRequestDto.from(ir);
     }
 
+    /**
+     * Accept or reject several of the traveler's pending requests in one transaction.
+     * All or nothing: if any request is missing, belongs to someone else's trip, is no longer
+     * pending or does not fit its trip's remaining capacity, nothing is changed. Status changes
+     * are flushed as one JDBC batch and notifications are inserted with one batch per table.
+     */
+    @Transactional
+    public List<ItemRequestDto> decideRequests(User currentUser, RequestDecisionRequest req) {
+        boolean accept = req.getDecision() == RequestDecisionRequest.Decision.ACCEPT;
+        List<Long> ids = req.getRequestIds().stream().distinct().toList();
+        List<ItemRequest> requests = itemRequestRepository.findAllForDecision(ids);
+        if (requests.size() != ids.size()) {
+            throw new NotFoundException("Request not found");
+        }
+        for (ItemRequest ir : requests) {
+            if (!ir.getTrip().getUser().getId().equals(currentUser.getId())) {
+                throw new ForbiddenException(accept
+                        ? "Only the traveler can accept requests" : "Only the traveler can reject requests");
+            }
+            if (ir.getStatus() != RequestStatus.PENDING) {
+                throw new BadRequestException((accept
+                        ? "Can only accept pending requests" : "Can only reject pending requests")
+                        + " (request " + ir.getId() + " is " + ir.getStatus() + ")");
+            }
+        }
+
+        Map<Trip, List<ItemRequest>> byTrip = requests.stream()
+                .collect(Collectors.groupingBy(ItemRequest::getTrip, LinkedHashMap::new, Collectors.toList()));
+        if (accept) {
+            byTrip.forEach(tripCapacityLedger::reserve);
+        }
+
+        RequestStatus to = accept ? RequestStatus.ACCEPTED : RequestStatus.REJECTED;
+        Instant now = Instant.now();
+        for (ItemRequest ir : requests) {
+            ir.setStatus(to);
+            if (accept) {
+                ir.setContactRevealedAt(now);
+            }
+        }
+        byTrip.forEach((trip, tripRequests) ->
+                tripRequestCounters.transition(trip, RequestStatus.PENDING, to, tripRequests.size()));
+
+        NotificationBatch notifications = new NotificationBatch();
+        if (accept) {
+            User traveler = requests.get(0).getTrip().getUser();
+            userReputationCounters.requestsAccepted(traveler, requests.size());
+            travelerRanking.refresh(traveler);
+            for (ItemRequest ir : requests) {
+                sendRequestAcceptedNotification(ir, notifications);
+                sendRequestAcceptedTravelerNotification(ir, notifications);
+            }
+        } else {
+            for (ItemRequest ir : requests) {
+                sendRequestRejectedNotification(ir, notifications);
+            }
+        }
+        notificationBatchWriter.write(notifications);
+
+        return requests.stream().map(ItemRequestDto::from).toList();
+    }
+
     @Transactional
     public ItemRequestDto markAsDelivered(Long requestId, Long travelerId) {
         ItemRequest request = itemRequestRepository.findById(requestId)
@@ -242,14 +402,17 @@ public class ItemRequestService {
 
         request.setStatus(RequestStatus.DELIVERED);
         itemRequestRepository.save(request);
+        tripRequestCounters.transition(request.getTrip(), RequestStatus.ACCEPTED, RequestStatus.DELIVERED);
 
         // Update traveler's delivery count
         User traveler = request.getTrip().getUser();
-        traveler.setCompletedDeliveriesCount(traveler.getCompletedDeliveriesCount() + 1);
-        userRepository.save(traveler);
+        userReputationCounters.requestDelivered(traveler, Instant.now());
+        travelerRanking.refresh(traveler);
 
         // Notify sender
-        sendRequestDeliveredNotification(request);
+        NotificationBatch notifications = new NotificationBatch();
+        sendRequestDeliveredNotification(request, notifications);
+        notificationBatchWriter.write(notifications);
 
         return ItemRequestDto.from(request);
     }
@@ -270,12 +433,13 @@ public class ItemRequestService {
 
         request.setStatus(RequestStatus.CANCELLED);
         itemRequestRepository.save(request);
+        tripRequestCounters.transition(request.getTrip(), RequestStatus.PENDING, RequestStatus.CANCELLED);
 
         return ItemRequestDto.from(request);
     }
 
     // Notification helpers
-    private void sendNewRequestNotification(ItemRequest request) {
+    private void sendNewRequestNotification(ItemRequest request, NotificationBatch notifications) {
         User traveler = request.getTrip().getUser();
         User sender = request.getSenderUser();
         Trip trip = request.getTrip();
@@ -291,10 +455,10 @@ public class ItemRequestService {
         payload.put("departureDate", trip.getDepartureDate().toString());
         payload.put("senderFirstName", sender.getFirstName());
 
-        enqueueNotification(traveler, "NEW_REQUEST", payload);
+        enqueueNotification(notifications, traveler, "NEW_REQUEST", payload);
     }
 
-    private void sendRequestAcceptedNotification(ItemRequest request) {
+    private void sendRequestAcceptedNotification(ItemRequest request, NotificationBatch notifications) {
         User sender = request.getSenderUser();
         User traveler = request.getTrip().getUser();
         Trip trip = request.getTrip();
@@ -318,10 +482,10 @@ public class ItemRequestService {
             payload.put("contactButtonText", "Message " + traveler.getFirstName());
         }
 
-        enqueueNotification(sender, "REQUEST_ACCEPTED", payload);
+        enqueueNotification(notifications, sender, "REQUEST_ACCEPTED", payload);
     }
 
-    private void sendRequestAcceptedTravelerNotification(ItemRequest request) {
+    private void sendRequestAcceptedTravelerNotification(ItemRequest request, NotificationBatch notifications) {
         User sender = request.getSenderUser();
         User traveler = request.getTrip().getUser();
         Trip trip = request.getTrip();
@@ -344,10 +508,10 @@ public class ItemRequestService {
             payload.put("contactButtonText", "Message " + sender.getFirstName());
         }
 
-        enqueueNotification(traveler, "REQUEST_ACCEPTED_TRAVELER", payload);
+        enqueueNotification(notifications, traveler, "REQUEST_ACCEPTED_TRAVELER", payload);
     }
 
-    private void sendRequestRejectedNotification(ItemRequest request) {
+    private void sendRequestRejectedNotification(ItemRequest request, NotificationBatch notifications) {
         User sender = request.getSenderUser();
         Trip trip = request.getTrip();
 
@@ -360,10 +524,10 @@ public class ItemRequestService {
         payload.put("route", trip.getFromCity() + " -> " + trip.getToCity());
         payload.put("message", "The traveler was unable to accept your request. You can search for other travelers on this route.");
 
-        enqueueNotification(sender, "REQUEST_REJECTED", payload);
+        enqueueNotification(notifications, sender, "REQUEST_REJECTED", payload);
     }
 
-    private void sendRequestDeliveredNotification(ItemRequest request) {
+    private void sendRequestDeliveredNotification(ItemRequest request, NotificationBatch notifications) {
         User sender = request.getSenderUser();
         User traveler = request.getTrip().getUser();
         Trip trip = request.getTrip();
@@ -378,12 +542,13 @@ public class ItemRequestService {
         payload.put("travelerFirstName", traveler.getFirstName());
         payload.put("reviewPrompt", "How was your experience with " + traveler.getFirstName() + "?");
 
-        enqueueNotification(sender, "REQUEST_DELIVERED", payload);
+        enqueueNotification(notifications, sender, "REQUEST_DELIVERED", payload);
     }
 
-    private void enqueueNotification(User user, String type, Map<String, Object> payload) {
+    private void enqueueNotification(NotificationBatch notifications, User user, String type,
+                                     Map<String, Object> payload) {
         // 1. Create in-app notification (for all users)
-        createInAppNotification(user, type, payload);
+        notifications.add(buildInAppNotification(user, type, payload));
 
         // 2. Enqueue Telegram notification (will be sent if user has Telegram ID)
         NotificationOutbox outbox = new NotificationOutbox();
@@ -394,10 +559,10 @@ public class ItemRequestService {
         } catch (JsonProcessingException e) {
             outbox.setPayload("{}");
         }
-        notificationService.enqueueNotification(outbox);
+        notifications.add(outbox);
     }
 
-    private void createInAppNotification(User user, String type, Map<String, Object> payload) {
+    private Notification buildInAppNotification(User user, String type, Map<String, Object> payload) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setType(type);
@@ -414,7 +579,7 @@ public class ItemRequestService {
         String actionUrl = buildActionUrl(type, payload);
         notification.setActionUrl(actionUrl);
 
-        notificationRepository.save(notification);
+        return notification;
     }
 
     private String getDefaultTitle(String type) {
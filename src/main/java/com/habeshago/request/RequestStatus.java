@@ -6,5 +6,7 @@ public enum RequestStatus {
     REJECTED,
     CANCELLED,
     CANCELLED_BY_TRAVELER,
-    DELIVERED
+    DELIVERED,
+    // Still pending when the trip departed or closed; set by TripLifecycleSweeper
+    EXPIRED
 }
@@ -0,0 +1,19 @@
+package com.habeshago.request.dto;
+
+import com.habeshago.trip.dto.TripDto;
+
+import java.util.List;
+
+/**
+ * One page of requests across the traveler's trips, newest first.
+ * Each trip on the page is listed once in {@code trips}; requests refer to it by {@code tripId}.
+ * Pass {@code nextCursor} back as {@code cursor} to fetch the following page;
+ * it is null when there are no more results.
+ */
+public record IncomingRequestsPageDto(
+        List<ItemRequestDto> items,
+        List<TripDto> trips,
+        String nextCursor,
+        boolean hasMore
+) {
+}
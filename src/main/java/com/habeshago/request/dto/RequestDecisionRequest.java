@@ -0,0 +1,24 @@
+package com.habeshago.request.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class RequestDecisionRequest {
+
+    public enum Decision { ACCEPT, REJECT }
+
+    @NotNull(message = "Decision is required")
+    private Decision decision;
+
+    @NotEmpty(message = "At least one request is required")
+    @Size(max = 100, message = "At most 100 requests can be decided at once")
+    private List<@NotNull Long> requestIds;
+
+    public Decision getDecision() { return decision; }
+    public void setDecision(Decision decision) { this.decision = decision; }
+    public List<Long> getRequestIds() { return requestIds; }
+    public void setRequestIds(List<Long> requestIds) { this.requestIds = requestIds; }
+}
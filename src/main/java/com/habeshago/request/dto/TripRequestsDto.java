@@ -0,0 +1,15 @@
+package com.habeshago.request.dto;
+
+import com.habeshago.trip.dto.TripDto;
+
+import java.util.List;
+
+/**
+ * A trip and its requests for the traveler's request list. The trip is included once;
+ * the requests carry only its id.
+ */
+public record TripRequestsDto(
+        TripDto trip,
+        List<ItemRequestDto> requests
+) {
+}
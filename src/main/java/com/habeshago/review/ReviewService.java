@@ -9,6 +9,7 @@ import com.habeshago.request.ItemRequestRepository;
 import com.habeshago.request.RequestStatus;
 import com.habeshago.review.dto.CreateReviewRequest;
 import com.habeshago.review.dto.ReviewDto;
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
 import com.habeshago.user.UserRepository;
 import org.slf4j.Logger;
@@ -31,14 +32,17 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final TravelerRanking travelerRanking;
 
     public ReviewService(
             ReviewRepository reviewRepository,
             ItemRequestRepository itemRequestRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            TravelerRanking travelerRanking) {
         this.reviewRepository = reviewRepository;
         this.itemRequestRepository = itemRequestRepository;
         this.userRepository = userRepository;
+        this.travelerRanking = travelerRanking;
     }
 
     public ReviewDto createReview(Long requestId, Long reviewerId, CreateReviewRequest request) {
@@ -95,6 +99,7 @@ public class ReviewService {
      */
     private void updateTravelerRating(User traveler, int newRating) {
         userRepository.updateRatingAtomically(traveler.getId(), newRating);
+        travelerRanking.reloadAndRefresh(traveler);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,93 @@
+package com.habeshago.subscription;
+
+import com.habeshago.trip.CapacityType;
+import com.habeshago.user.User;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A sender's saved route search. New trips matching it trigger a notification.
+ * {@code fromKey}/{@code toKey} are the normalized place keys used by {@link RouteSubscriptionIndex}.
+ */
+@Entity
+@Table(name = "route_subscriptions", indexes = {
+        @Index(name = "idx_subscription_user", columnList = "user_id"),
+        @Index(name = "idx_subscription_active", columnList = "active,date_to")
+})
+public class RouteSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(name = "from_city", nullable = false, length = 100)
+    private String fromCity;
+
+    @Column(name = "to_city", nullable = false, length = 100)
+    private String toCity;
+
+    @Column(name = "from_key", nullable = false, length = 120)
+    private String fromKey;
+
+    @Column(name = "to_key", nullable = false, length = 120)
+    private String toKey;
+
+    // Departure window; null means no bound on that side
+    @Column(name = "date_from")
+    private LocalDate dateFrom;
+
+    @Column(name = "date_to")
+    private LocalDate dateTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "capacity_type", length = 20)
+    private CapacityType capacityType;
+
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getFromCity() { return fromCity; }
+    public void setFromCity(String fromCity) { this.fromCity = fromCity; }
+
+    public String getToCity() { return toCity; }
+    public void setToCity(String toCity) { this.toCity = toCity; }
+
+    public String getFromKey() { return fromKey; }
+    public void setFromKey(String fromKey) { this.fromKey = fromKey; }
+
+    public String getToKey() { return toKey; }
+    public void setToKey(String toKey) { this.toKey = toKey; }
+
+    public LocalDate getDateFrom() { return dateFrom; }
+    public void setDateFrom(LocalDate dateFrom) { this.dateFrom = dateFrom; }
+
+    public LocalDate getDateTo() { return dateTo; }
+    public void setDateTo(LocalDate dateTo) { this.dateTo = dateTo; }
+
+    public CapacityType getCapacityType() { return capacityType; }
+    public void setCapacityType(CapacityType capacityType) { this.capacityType = capacityType; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,8 @@
+package com.habeshago.subscription;
+
+/**
+ * Published by {@link RouteSubscriptionService} when a subscription is created or removed,
+ * so {@link RouteSubscriptionIndex} can update after the transaction commits.
+ */
+public record RouteSubscriptionChangedEvent(RouteSubscriptionIndex.Entry entry, boolean active) {
+}
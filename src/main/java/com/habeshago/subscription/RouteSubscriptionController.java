@@ -0,0 +1,57 @@
+package com.habeshago.subscription;
+
+import com.habeshago.auth.AuthInterceptor;
+import com.habeshago.subscription.dto.RouteSubscriptionCreateRequest;
+import com.habeshago.subscription.dto.RouteSubscriptionDto;
+import com.habeshago.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Route alerts: senders subscribe to a route and get notified when a matching trip is posted,
+ * instead of polling search.
+ */
+@RestController
+@RequestMapping("/api")
+public class RouteSubscriptionController {
+
+    private final RouteSubscriptionService subscriptionService;
+
+    public RouteSubscriptionController(RouteSubscriptionService subscriptionService) {
+        this.subscriptionService = subscriptionService;
+    }
+
+    private User requireCurrentUser(HttpServletRequest request) {
+        User user = AuthInterceptor.getCurrentUser(request);
+        if (user == null) {
+            throw new IllegalStateException("Authentication required");
+        }
+        return user;
+    }
+
+    @PostMapping("/subscriptions")
+    public ResponseEntity<RouteSubscriptionDto> createSubscription(
+            HttpServletRequest request,
+            @Valid @RequestBody RouteSubscriptionCreateRequest body) {
+        User user = requireCurrentUser(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(subscriptionService.createSubscription(user, body));
+    }
+
+    @GetMapping("/subscriptions/my")
+    public ResponseEntity<List<RouteSubscriptionDto>> getMySubscriptions(HttpServletRequest request) {
+        User user = requireCurrentUser(request);
+        return ResponseEntity.ok(subscriptionService.getMySubscriptions(user));
+    }
+
+    @DeleteMapping("/subscriptions/{id}")
+    public ResponseEntity<Void> deleteSubscription(HttpServletRequest request, @PathVariable Long id) {
+        User user = requireCurrentUser(request);
+        subscriptionService.deleteSubscription(user, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.habeshago.subscription;
+
+import com.habeshago.location.Location;
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.SearchKeys;
+import com.habeshago.trip.CapacityType;
+import com.habeshago.trip.TripSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index of live route subscriptions, keyed by (from place key, to place key).
+ *
+ * A place key is {@code loc:<id>} for places in the {@link LocationDictionary} and
+ * {@code city:<search key>} otherwise, where the search key is {@link SearchKeys#fold} of the
+ * name, so spelling variants of a city match each other. A trip produces at most three keys per side
+ * (its city name, its location and that location's country), so matching a trip reads at most
+ * nine buckets and only touches subscriptions on those routes, never the full set.
+ */
+@Component
+public class RouteSubscriptionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteSubscriptionIndex.class);
+
+    // Matches the from_key/to_key column length
+    private static final int MAX_KEY_LENGTH = 120;
+
+    private final RouteSubscriptionRepository subscriptionRepository;
+    private final LocationDictionary locationDictionary;
+
+    // "fromKey|toKey" -> subscription id -> entry
+    private final Map<String, Map<Long, Entry>> byRoute = new ConcurrentHashMap<>();
+
+    public RouteSubscriptionIndex(RouteSubscriptionRepository subscriptionRepository,
+                                  LocationDictionary locationDictionary) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.locationDictionary = locationDictionary;
+    }
+
+    /**
+     * Load live subscriptions, recomputing their stored place keys first so they follow changes
+     * to {@link SearchKeys} and the location dictionary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void bootstrap() {
+        List<RouteSubscription> live = subscriptionRepository.findLive(LocalDate.now());
+        int rekeyed = 0;
+        for (RouteSubscription subscription : live) {
+            String fromKey = placeKey(subscription.getFromCity());
+            String toKey = placeKey(subscription.getToCity());
+            if (!fromKey.equals(subscription.getFromKey()) || !toKey.equals(subscription.getToKey())) {
+                subscription.setFromKey(fromKey);
+                subscription.setToKey(toKey);
+                rekeyed++;
+            }
+        }
+        if (rekeyed > 0) {
+            log.info("Recomputed place keys on {} route subscriptions", rekeyed);
+        }
+        byRoute.clear();
+        live.forEach(s -> add(Entry.from(s)));
+        log.info("Route subscription index built with {} subscriptions", live.size());
+    }
+
+    @TransactionalEventListener
+    public void onSubscriptionChanged(RouteSubscriptionChangedEvent event) {
+        if (event.active()) {
+            add(event.entry());
+        } else {
+            remove(event.entry());
+        }
+    }
+
+    /**
+     * Deactivate subscriptions whose window has ended. Runs shortly after midnight.
+     */
+    @Scheduled(cron = "0 15 0 * * *")
+    @Transactional
+    public void expire() {
+        LocalDate today = LocalDate.now();
+        int expired = subscriptionRepository.deactivateExpired(today);
+        for (Map<Long, Entry> bucket : byRoute.values()) {
+            bucket.values().removeIf(e -> e.dateTo() != null && e.dateTo().isBefore(today));
+        }
+        byRoute.values().removeIf(Map::isEmpty);
+        log.info("Expired {} route subscriptions", expired);
+    }
+
+    /**
+     * Subscriptions whose route, date window and capacity type match the trip.
+     */
+    public List<Entry> match(TripSnapshot trip) {
+        List<Entry> matches = new ArrayList<>();
+        for (String fromKey : tripPlaceKeys(trip.fromLocationId(), trip.fromCity())) {
+            for (String toKey : tripPlaceKeys(trip.toLocationId(), trip.toCity())) {
+                Map<Long, Entry> bucket = byRoute.get(routeKey(fromKey, toKey));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry entry : bucket.values()) {
+                    if (entry.accepts(trip)) {
+                        matches.add(entry);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Key a subscription stores for free-text place input.
+     */
+    public String placeKey(String text) {
+        return locationDictionary.resolve(text)
+                .map(location -> "loc:" + location.id())
+                .orElseGet(() -> cityKey(text));
+    }
+
+    public int size() {
+        return byRoute.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private Set<String> tripPlaceKeys(Long locationId, String city) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(cityKey(city));
+        locationDictionary.findById(locationId).ifPresent(location -> {
+            keys.add("loc:" + location.id());
+            locationDictionary.findCountry(location).map(Location::id).ifPresent(id -> keys.add("loc:" + id));
+        });
+        return keys;
+    }
+
+    private void add(Entry entry) {
+        byRoute.computeIfAbsent(routeKey(entry.fromKey(), entry.toKey()), k -> new ConcurrentHashMap<>())
+                .put(entry.subscriptionId(), entry);
+    }
+
+    private void remove(Entry entry) {
+        byRoute.computeIfPresent(routeKey(entry.fromKey(), entry.toKey()), (k, bucket) -> {
+            bucket.remove(entry.subscriptionId());
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private static String cityKey(String city) {
+        String key = "city:" + SearchKeys.fold(city);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static String routeKey(String fromKey, String toKey) {
+        return fromKey + "|" + toKey;
+    }
+
+    public record Entry(
+            Long subscriptionId,
+            Long userId,
+            String fromKey,
+            String toKey,
+            LocalDate dateFrom,
+            LocalDate dateTo,
+            CapacityType capacityType
+    ) {
+        static Entry from(RouteSubscription s) {
+            return new Entry(s.getId(), s.getUser().getId(), s.getFromKey(), s.getToKey(),
+                    s.getDateFrom(), s.getDateTo(), s.getCapacityType());
+        }
+
+        boolean accepts(TripSnapshot trip) {
+            LocalDate date = trip.departureDate();
+            return (dateFrom == null || !date.isBefore(dateFrom))
+                    && (dateTo == null || !date.isAfter(dateTo))
+                    && (capacityType == null || capacityType == trip.capacityType());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.habeshago.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habeshago.notification.NotificationOutbox;
+import com.habeshago.notification.NotificationService;
+import com.habeshago.notification.NotificationType;
+import com.habeshago.trip.TripChangedEvent;
+import com.habeshago.trip.TripSnapshot;
+import com.habeshago.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Notifies subscribers when a newly created trip matches their route subscription.
+ * Runs after the trip is committed; one notification per subscriber even if several of
+ * their subscriptions match.
+ */
+@Component
+public class RouteSubscriptionMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteSubscriptionMatcher.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final RouteSubscriptionIndex subscriptionIndex;
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+    // The trip transaction has already committed, so the notifications need their own
+    private final TransactionTemplate transactionTemplate;
+
+    public RouteSubscriptionMatcher(RouteSubscriptionIndex subscriptionIndex,
+                                    NotificationService notificationService,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.subscriptionIndex = subscriptionIndex;
+        this.notificationService = notificationService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        TripSnapshot trip = event.current();
+        if (event.type() != TripChangedEvent.Type.CREATED || !trip.isSearchable(LocalDate.now())) {
+            return;
+        }
+
+        Map<Long, RouteSubscriptionIndex.Entry> bySubscriber = new LinkedHashMap<>();
+        for (RouteSubscriptionIndex.Entry entry : subscriptionIndex.match(trip)) {
+            if (!entry.userId().equals(trip.userId())) {
+                bySubscriber.putIfAbsent(entry.userId(), entry);
+            }
+        }
+        if (bySubscriber.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> bySubscriber.values().forEach(entry -> enqueue(entry, trip)));
+        log.info("Trip {} matched route subscriptions of {} users", trip.id(), bySubscriber.size());
+    }
+
+    private void enqueue(RouteSubscriptionIndex.Entry entry, TripSnapshot trip) {
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", NotificationType.SUBSCRIPTION_MATCH.name());
+            payload.put("title", "New trip on your route!");
+            payload.put("tripId", trip.id());
+            payload.put("subscriptionId", entry.subscriptionId());
+            payload.put("route", trip.fromCity() + " → " + trip.toCity());
+            payload.put("departureDate", trip.departureDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+            payload.put("capacityType", trip.capacityType().name());
+
+            NotificationOutbox outbox = new NotificationOutbox();
+            outbox.setUser(userRepository.getReferenceById(entry.userId()));
+            outbox.setType(NotificationType.SUBSCRIPTION_MATCH.name());
+            outbox.setPayload(objectMapper.writeValueAsString(payload));
+            notificationService.enqueueNotification(outbox);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize subscription match payload for trip {}", trip.id(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.habeshago.subscription;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RouteSubscriptionRepository extends JpaRepository<RouteSubscription, Long> {
+
+    List<RouteSubscription> findByUserIdAndActiveTrueOrderByCreatedAtDesc(Long userId);
+
+    long countByUserIdAndActiveTrue(Long userId);
+
+    /**
+     * Active subscriptions whose window has not ended, for bootstrapping the in-memory index.
+     */
+    @Query("SELECT s FROM RouteSubscription s WHERE s.active = true AND (s.dateTo IS NULL OR s.dateTo >= :today)")
+    List<RouteSubscription> findLive(@Param("today") LocalDate today);
+
+    @Modifying
+    @Query("UPDATE RouteSubscription s SET s.active = false WHERE s.active = true AND s.dateTo < :today")
+    int deactivateExpired(@Param("today") LocalDate today);
+
+    @Modifying
+    @Query("UPDATE RouteSubscription s SET s.active = false WHERE s.active = true AND s.user.id = :userId")
+    int deactivateByUserId(@Param("userId") Long userId);
+}
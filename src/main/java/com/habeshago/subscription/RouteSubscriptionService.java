@@ -0,0 +1,91 @@
+package com.habeshago.subscription;
+
+import com.habeshago.common.BadRequestException;
+import com.habeshago.common.NotFoundException;
+import com.habeshago.subscription.dto.RouteSubscriptionCreateRequest;
+import com.habeshago.subscription.dto.RouteSubscriptionDto;
+import com.habeshago.user.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class RouteSubscriptionService {
+
+    // Cap per user so one account cannot grow the in-memory index without bound
+    private static final int MAX_ACTIVE_SUBSCRIPTIONS = 10;
+
+    private final RouteSubscriptionRepository subscriptionRepository;
+    private final RouteSubscriptionIndex subscriptionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RouteSubscriptionService(RouteSubscriptionRepository subscriptionRepository,
+                                    RouteSubscriptionIndex subscriptionIndex,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionIndex = subscriptionIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public RouteSubscriptionDto createSubscription(User user, RouteSubscriptionCreateRequest req) {
+        if (req.getDateFrom() != null && req.getDateTo() != null && req.getDateTo().isBefore(req.getDateFrom())) {
+            throw new BadRequestException("dateTo must not be before dateFrom");
+        }
+        if (req.getDateTo() != null && req.getDateTo().isBefore(LocalDate.now())) {
+            throw new BadRequestException("dateTo must not be in the past");
+        }
+        if (subscriptionRepository.countByUserIdAndActiveTrue(user.getId()) >= MAX_ACTIVE_SUBSCRIPTIONS) {
+            throw new BadRequestException("You can have at most " + MAX_ACTIVE_SUBSCRIPTIONS + " route alerts");
+        }
+
+        RouteSubscription subscription = new RouteSubscription();
+        subscription.setUser(user);
+        subscription.setFromCity(req.getFromCity().trim());
+        subscription.setToCity(req.getToCity().trim());
+        subscription.setFromKey(subscriptionIndex.placeKey(req.getFromCity()));
+        subscription.setToKey(subscriptionIndex.placeKey(req.getToCity()));
+        subscription.setDateFrom(req.getDateFrom());
+        subscription.setDateTo(req.getDateTo());
+        subscription.setCapacityType(req.getCapacityType());
+        RouteSubscription saved = subscriptionRepository.save(subscription);
+
+        eventPublisher.publishEvent(new RouteSubscriptionChangedEvent(RouteSubscriptionIndex.Entry.from(saved), true));
+        return RouteSubscriptionDto.from(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteSubscriptionDto> getMySubscriptions(User user) {
+        return subscriptionRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(user.getId()).stream()
+                .map(RouteSubscriptionDto::from)
+                .toList();
+    }
+
+    @Transactional
+    public void deleteSubscription(User user, Long subscriptionId) {
+        RouteSubscription subscription = subscriptionRepository.findById(subscriptionId)
+                .filter(s -> s.getUser().getId().equals(user.getId()) && Boolean.TRUE.equals(s.getActive()))
+                .orElseThrow(() -> new NotFoundException("Subscription not found"));
+        subscription.setActive(false);
+        subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new RouteSubscriptionChangedEvent(RouteSubscriptionIndex.Entry.from(subscription), false));
+    }
+
+    /**
+     * Deactivate all of a user's subscriptions, e.g. when the account is deleted.
+     */
+    @Transactional
+    public void deactivateAll(User user) {
+        List<RouteSubscription> active = subscriptionRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(user.getId());
+        if (active.isEmpty()) {
+            return;
+        }
+        subscriptionRepository.deactivateByUserId(user.getId());
+        for (RouteSubscription subscription : active) {
+            eventPublisher.publishEvent(new RouteSubscriptionChangedEvent(RouteSubscriptionIndex.Entry.from(subscription), false));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.habeshago.subscription.dto;
+
+import com.habeshago.trip.CapacityType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public class RouteSubscriptionCreateRequest {
+
+    @NotBlank
+    @Size(max = 100)
+    private String fromCity;
+
+    @NotBlank
+    @Size(max = 100)
+    private String toCity;
+
+    private LocalDate dateFrom;
+
+    private LocalDate dateTo;
+
+    private CapacityType capacityType;
+
+    public String getFromCity() { return fromCity; }
+    public void setFromCity(String fromCity) { this.fromCity = fromCity; }
+    public String getToCity() { return toCity; }
+    public void setToCity(String toCity) { this.toCity = toCity; }
+    public LocalDate getDateFrom() { return dateFrom; }
+    public void setDateFrom(LocalDate dateFrom) { this.dateFrom = dateFrom; }
+    public LocalDate getDateTo() { return dateTo; }
+    public void setDateTo(LocalDate dateTo) { this.dateTo = dateTo; }
+    public CapacityType getCapacityType() { return capacityType; }
+    public void setCapacityType(CapacityType capacityType) { this.capacityType = capacityType; }
+}
@@ -0,0 +1,29 @@
+package com.habeshago.subscription.dto;
+
+import com.habeshago.subscription.RouteSubscription;
+import com.habeshago.trip.CapacityType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record RouteSubscriptionDto(
+        String id,
+        String fromCity,
+        String toCity,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        CapacityType capacityType,
+        Instant createdAt
+) {
+    public static RouteSubscriptionDto from(RouteSubscription subscription) {
+        return new RouteSubscriptionDto(
+                subscription.getId().toString(),
+                subscription.getFromCity(),
+                subscription.getToCity(),
+                subscription.getDateFrom(),
+                subscription.getDateTo(),
+                subscription.getCapacityType(),
+                subscription.getCreatedAt()
+        );
+    }
+}
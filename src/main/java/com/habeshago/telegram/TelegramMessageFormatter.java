@@ -28,6 +28,8 @@ public class TelegramMessageFormatter {
             case "REQUEST_REJECTED" -> formatRequestRejected(payload);
             case "NEW_REQUEST" -> formatNewRequest(payload);
             case "TRIP_CANCELLED" -> formatTripCancelled(payload);
+            case "SUBSCRIPTION_MATCH" -> formatSubscriptionMatch(payload);
+            case "REQUESTS_EXPIRED" -> formatRequestsExpired(payload);
             default -> formatGeneric(payload);
         };
     }
@@ -194,6 +196,42 @@ public class TelegramMessageFormatter {
         return message;
     }
 
+    private TelegramMessage formatSubscriptionMatch(Map<String, Object> payload) {
+        StringBuilder text = new StringBuilder();
+        text.append("🔔 *New trip on your route!*\n\n");
+        text.append("✈️ ").append(payload.get("route")).append("\n");
+        text.append("📅 ").append(payload.get("departureDate")).append("\n\n");
+        text.append("_Open the app to send a request before space runs out._");
+
+        TelegramMessage message = new TelegramMessage();
+        message.setText(text.toString());
+        message.setParseMode("Markdown");
+
+        return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TelegramMessage formatRequestsExpired(Map<String, Object> payload) {
+        StringBuilder text = new StringBuilder();
+        text.append("⌛ *").append(payload.get("title")).append("*\n\n");
+        Object items = payload.get("items");
+        if (items instanceof List<?> list) {
+            for (Object entry : list) {
+                Map<String, Object> item = (Map<String, Object>) entry;
+                text.append("📦 ").append(item.get("itemDescription")).append("\n");
+                text.append("✈️ ").append(item.get("route")).append(" · ").append(item.get("departureDate")).append("\n\n");
+            }
+        }
+        text.append("_The trip departed or closed before the traveler responded. ");
+        text.append("You can search for other travelers going to your destination._");
+
+        TelegramMessage message = new TelegramMessage();
+        message.setText(text.toString());
+        message.setParseMode("Markdown");
+
+        return message;
+    }
+
     private TelegramMessage formatGeneric(Map<String, Object> payload) {
         TelegramMessage message = new TelegramMessage();
         message.setText((String) payload.getOrDefault("title", "You have a new notification"));
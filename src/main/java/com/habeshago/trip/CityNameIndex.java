@@ -0,0 +1,227 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process trigram index over the distinct city names used by trips.
+ *
+ * Names are held as {@link SearchKeys} so script, case and transliteration differences
+ * ("Mekele", "Mek'ele", "መቀሌ") are already equal. Trip search resolves the user's free-text
+ * "from"/"to" into the search keys stored on trips (substring and typo tolerant, ranked by
+ * match quality), then queries trips by equality on those keys. This keeps the trips query
+ * index-backed instead of scanning every row with a leading-wildcard LIKE.
+ *
+ * The vocabulary of city names is small compared to the trips table, so the index is
+ * kept as an immutable snapshot that is swapped when a new name appears.
+ */
+@Component
+public class CityNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CityNameIndex.class);
+
+    // Minimum trigram similarity (Jaccard) for a typo match, same default as pg_trgm
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final int MAX_MATCHES = 20;
+
+    // Match quality scores used for ranking
+    private static final double SCORE_EXACT = 1.0;
+    private static final double SCORE_PREFIX = 0.9;
+    private static final double SCORE_SUBSTRING = 0.8;
+    private static final double SCORE_FUZZY_WEIGHT = 0.7;
+
+    private final TripRepository tripRepository;
+    // Read-write, so the bootstrap runs on the primary rather than a lagging replica
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    private volatile long version;
+
+    public CityNameIndex(TripRepository tripRepository, PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void bootstrap() {
+        List<String> names = transactionTemplate.execute(status -> tripRepository.findDistinctCityNames());
+        snapshot = Snapshot.build(names);
+        version++;
+        log.info("City name index built with {} distinct cities", snapshot.values.length);
+    }
+
+    /**
+     * Register city names used by a created or updated trip.
+     * Only rebuilds the snapshot when a name is not already indexed.
+     */
+    public synchronized void add(String... cityNames) {
+        Set<String> current = new LinkedHashSet<>(List.of(snapshot.values));
+        boolean changed = false;
+        for (String name : cityNames) {
+            if (name != null && !name.isBlank()) {
+                changed |= current.add(normalize(name));
+            }
+        }
+        if (changed) {
+            snapshot = Snapshot.build(current);
+            version++;
+        }
+    }
+
+    /**
+     * Incremented whenever the set of known city names changes, which can change how
+     * a free-text query resolves. Callers caching resolved results include it in their key.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Resolve a free-text city query to stored city search keys, best match first.
+     * @return null if the query is blank (no city filter), otherwise the matches (possibly empty)
+     */
+    public List<CityMatch> match(String query) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        Snapshot s = snapshot;
+        Set<String> queryGrams = trigrams(key);
+
+        // Count shared trigrams per candidate using the posting lists only
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            int[] postings = s.postings.get(gram);
+            if (postings != null) {
+                for (int id : postings) {
+                    shared.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<CityMatch> matches = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+            int id = e.getKey();
+            String name = s.values[id];
+            double score;
+            if (name.equals(key)) {
+                score = SCORE_EXACT;
+            } else if (name.startsWith(key)) {
+                score = SCORE_PREFIX;
+            } else if (name.contains(key)) {
+                score = SCORE_SUBSTRING;
+            } else {
+                double similarity = similarity(queryGrams, e.getValue(), s.gramCounts[id], name);
+                if (similarity < MIN_SIMILARITY) {
+                    continue;
+                }
+                score = SCORE_FUZZY_WEIGHT * similarity;
+            }
+            matches.add(new CityMatch(s.values[id], score));
+        }
+
+        matches.sort(Comparator.comparingDouble(CityMatch::score).reversed());
+        return matches.size() > MAX_MATCHES ? matches.subList(0, MAX_MATCHES) : matches;
+    }
+
+    /**
+     * Trigram similarity between the query and a candidate name: the better of the
+     * whole-name score and the best single-word score, so "abeba" still matches
+     * "addis ababa" even though the full name has many extra trigrams.
+     */
+    private static double similarity(Set<String> queryGrams, int common, int nameGramCount, String name) {
+        double best = jaccard(common, queryGrams.size(), nameGramCount);
+        for (String word : name.split(" ")) {
+            Set<String> wordGrams = trigrams(word);
+            int wordCommon = 0;
+            for (String gram : wordGrams) {
+                if (queryGrams.contains(gram)) {
+                    wordCommon++;
+                }
+            }
+            best = Math.max(best, jaccard(wordCommon, queryGrams.size(), wordGrams.size()));
+        }
+        return best;
+    }
+
+    private static double jaccard(int common, int sizeA, int sizeB) {
+        int union = sizeA + sizeB - common;
+        return union == 0 ? 0.0 : (double) common / union;
+    }
+
+    /**
+     * Normalized matching key, the same as the search keys stored on trips.
+     */
+    static String normalize(String value) {
+        return SearchKeys.fold(value);
+    }
+
+    /**
+     * Word-level trigrams padded the same way as pg_trgm ("  w", " wo", "wor", ..., "rd ").
+     */
+    static Set<String> trigrams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (String word : key.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    public record CityMatch(String city, double score) {}
+
+    private static final class Snapshot {
+        // Distinct city search keys
+        final String[] values;
+        final int[] gramCounts;
+        final Map<String, int[]> postings;
+
+        private Snapshot(String[] values, int[] gramCounts, Map<String, int[]> postings) {
+            this.values = values;
+            this.gramCounts = gramCounts;
+            this.postings = postings;
+        }
+
+        static Snapshot build(Collection<String> names) {
+            String[] values = names.stream()
+                    .map(CityNameIndex::normalize)
+                    .filter(key -> !key.isEmpty())
+                    .distinct()
+                    .toArray(String[]::new);
+            int[] gramCounts = new int[values.length];
+            Map<String, List<Integer>> lists = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                Set<String> grams = trigrams(values[i]);
+                gramCounts[i] = grams.size();
+                for (String gram : grams) {
+                    lists.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+                }
+            }
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+            return new Snapshot(values, gramCounts, postings);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.Location;
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.SearchKeys;
+import com.habeshago.trip.dto.CitySuggestionDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-memory prefix index for city autocomplete.
+ *
+ * Suggestions are the places in the {@link LocationDictionary} plus the free-text cities used by
+ * trips that the dictionary does not know. Every lookup key (name, alias in any script, airport
+ * code, and each later word of a multi-word name) is folded with {@link SearchKeys#fold}, so
+ * spelling variants of a free-text city are one suggestion and Ge'ez prefixes find Latin names.
+ * The keys are stored in one sorted array, so a prefix is a binary search followed by a scan of
+ * the keys sharing it. Each suggestion is weighted by the number of open trips starting or
+ * ending there; weights follow {@link TripChangedEvent}s and are recomputed nightly, when
+ * departed trips stop counting.
+ */
+@Component
+public class CitySuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CitySuggestIndex.class);
+
+    // Bounds the work for one- or two-letter prefixes
+    private static final int MAX_SCANNED_KEYS = 2000;
+
+    private final TripRepository tripRepository;
+    private final LocationDictionary locationDictionary;
+    // Read-write, so rebuilds run on the primary rather than a lagging replica
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Snapshot snapshot = new Builder().build();
+
+    public CitySuggestIndex(TripRepository tripRepository, LocationDictionary locationDictionary,
+                            PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.locationDictionary = locationDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild keys and weights from the location dictionary and the trips table.
+     */
+    public synchronized void rebuild() {
+        Builder builder = new Builder();
+        for (Map.Entry<String, Location> e : locationDictionary.lookupKeys().entrySet()) {
+            builder.addKey(e.getKey(), builder.location(e.getValue()));
+        }
+        List<String> cities = transactionTemplate.execute(status -> tripRepository.findDistinctRawCityNames());
+        for (String city : cities) {
+            if (locationDictionary.resolve(city).isEmpty()) {
+                builder.city(city);
+            }
+        }
+        Snapshot next = builder.build();
+
+        List<TripSnapshot> open = transactionTemplate.execute(status ->
+                tripRepository.findListableSnapshotsDepartingFrom(TripStatus.OPEN, LocalDate.now()));
+        for (TripSnapshot trip : open) {
+            adjust(next, trip, 1);
+        }
+        snapshot = next;
+        log.info("City suggest index built with {} places and {} keys", next.suggestions.length, next.keys.length);
+    }
+
+    @TransactionalEventListener
+    public synchronized void onTripChanged(TripChangedEvent event) {
+        LocalDate today = LocalDate.now();
+        TripSnapshot previous = event.previous();
+        TripSnapshot current = event.current();
+        if (previous != null && previous.isSearchable(today)) {
+            adjust(snapshot, previous, -1);
+        }
+        if (current.isSearchable(today)) {
+            Snapshot s = snapshot;
+            if (missingCity(s, current.fromLocationId(), current.fromCity())
+                    || missingCity(s, current.toLocationId(), current.toCity())) {
+                s = withCities(s, current.fromCity(), current.toCity());
+                snapshot = s;
+            }
+            adjust(s, current, 1);
+        }
+    }
+
+    /**
+     * Places whose name, alias, airport code or any word starts with {@code prefix},
+     * most open trips first.
+     */
+    public List<CitySuggestionDto> suggest(String prefix, int limit) {
+        String key = SearchKeys.fold(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Snapshot s = snapshot;
+        Set<Integer> candidates = new LinkedHashSet<>();
+        int end = Math.min(s.keys.length, lowerBound(s.keys, key) + MAX_SCANNED_KEYS);
+        for (int i = lowerBound(s.keys, key); i < end && s.keys[i].startsWith(key); i++) {
+            candidates.add(s.targets[i]);
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.<Integer>comparingInt(i -> -s.weights.get(i))
+                        .thenComparing(i -> s.suggestions[i].name()))
+                .limit(limit)
+                .map(i -> s.suggestions[i].toDto(s.weights.get(i)))
+                .toList();
+    }
+
+    private void adjust(Snapshot s, TripSnapshot trip, int delta) {
+        for (int target : targets(s, trip.fromLocationId(), trip.fromCity())) {
+            s.weights.addAndGet(target, delta);
+        }
+        for (int target : targets(s, trip.toLocationId(), trip.toCity())) {
+            s.weights.addAndGet(target, delta);
+        }
+    }
+
+    /**
+     * Suggestions credited with a trip end: its dictionary location and that location's
+     * country, or the free-text city when the place is not in the dictionary.
+     */
+    private List<Integer> targets(Snapshot s, Long locationId, String city) {
+        List<Integer> targets = new ArrayList<>(2);
+        Location location = locationDictionary.findById(locationId).orElse(null);
+        if (location != null) {
+            Integer own = s.byLocationId.get(location.id());
+            if (own != null) {
+                targets.add(own);
+            }
+            if (!location.isCountry()) {
+                locationDictionary.findCountry(location)
+                        .map(country -> s.byLocationId.get(country.id()))
+                        .ifPresent(targets::add);
+            }
+        } else {
+            Integer own = s.byCityKey.get(SearchKeys.fold(city));
+            if (own != null) {
+                targets.add(own);
+            }
+        }
+        return targets;
+    }
+
+    private boolean missingCity(Snapshot s, Long locationId, String city) {
+        return locationId == null && !s.byCityKey.containsKey(SearchKeys.fold(city));
+    }
+
+    /**
+     * Copy of the snapshot with new free-text cities added, keeping current weights.
+     */
+    private Snapshot withCities(Snapshot s, String... cities) {
+        Builder builder = new Builder(s);
+        for (String city : cities) {
+            if (locationDictionary.resolve(city).isEmpty()) {
+                builder.city(city);
+            }
+        }
+        return builder.build();
+    }
+
+    private static int lowerBound(String[] keys, String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record Suggestion(String name, Long locationId, String countryCode, boolean country) {
+        CitySuggestionDto toDto(int openTrips) {
+            return new CitySuggestionDto(name, locationId, countryCode, country ? "COUNTRY" : "CITY", openTrips);
+        }
+    }
+
+    private static final class Snapshot {
+        final String[] keys;
+        final int[] targets;
+        final Suggestion[] suggestions;
+        final AtomicIntegerArray weights;
+        final Map<Long, Integer> byLocationId;
+        final Map<String, Integer> byCityKey;
+
+        Snapshot(String[] keys, int[] targets, Suggestion[] suggestions, AtomicIntegerArray weights,
+                 Map<Long, Integer> byLocationId, Map<String, Integer> byCityKey) {
+            this.keys = keys;
+            this.targets = targets;
+            this.suggestions = suggestions;
+            this.weights = weights;
+            this.byLocationId = byLocationId;
+            this.byCityKey = byCityKey;
+        }
+    }
+
+    private static final class Builder {
+        private final List<Suggestion> suggestions = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+        private final Map<Long, Integer> byLocationId = new HashMap<>();
+        private final Map<String, Integer> byCityKey = new HashMap<>();
+        private final Map<String, Set<Integer>> keys = new HashMap<>();
+
+        Builder() {
+        }
+
+        Builder(Snapshot s) {
+            for (int i = 0; i < s.suggestions.length; i++) {
+                suggestions.add(s.suggestions[i]);
+                weights.add(s.weights.get(i));
+            }
+            byLocationId.putAll(s.byLocationId);
+            byCityKey.putAll(s.byCityKey);
+            for (int i = 0; i < s.keys.length; i++) {
+                keys.computeIfAbsent(s.keys[i], k -> new LinkedHashSet<>()).add(s.targets[i]);
+            }
+        }
+
+        int location(Location location) {
+            return byLocationId.computeIfAbsent(location.id(), id -> add(new Suggestion(
+                    location.name(), location.id(), location.countryCode(), location.isCountry())));
+        }
+
+        void city(String name) {
+            String key = SearchKeys.fold(name);
+            if (key.isEmpty() || byCityKey.containsKey(key)) {
+                return;
+            }
+            int target = add(new Suggestion(name.trim(), null, null, false));
+            byCityKey.put(key, target);
+            addKey(key, target);
+        }
+
+        /**
+         * Index the whole key and every later word, so "ababa" finds "Addis Ababa".
+         */
+        void addKey(String rawKey, int target) {
+            String key = SearchKeys.fold(rawKey);
+            for (int start = 0; start < key.length(); start = key.indexOf(' ', start) + 1) {
+                keys.computeIfAbsent(key.substring(start), k -> new LinkedHashSet<>()).add(target);
+                if (key.indexOf(' ', start) < 0) {
+                    break;
+                }
+            }
+        }
+
+        private int add(Suggestion suggestion) {
+            suggestions.add(suggestion);
+            weights.add(0);
+            return suggestions.size() - 1;
+        }
+
+        Snapshot build() {
+            String[] sortedKeys = keys.keySet().toArray(String[]::new);
+            Arrays.sort(sortedKeys);
+            int size = keys.values().stream().mapToInt(Set::size).sum();
+            String[] keyArray = new String[size];
+            int[] targetArray = new int[size];
+            int i = 0;
+            for (String key : sortedKeys) {
+                for (int target : keys.get(key)) {
+                    keyArray[i] = key;
+                    targetArray[i++] = target;
+                }
+            }
+            AtomicIntegerArray weightArray = new AtomicIntegerArray(weights.size());
+            for (int w = 0; w < weights.size(); w++) {
+                weightArray.set(w, weights.get(w));
+            }
+            return new Snapshot(keyArray, targetArray, suggestions.toArray(Suggestion[]::new), weightArray,
+                    Map.copyOf(byLocationId), Map.copyOf(byCityKey));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory route graph of searchable trips for multi-leg connection search.
+ *
+ * Nodes are places (a dictionary city, or a free-text city by its {@link SearchKeys} key) and
+ * each trip is an edge from its origin node, kept sorted by departure date. A connection is a
+ * direct trip or two trips where the second departs from the first one's destination on or
+ * after its arrival date (departure date when no arrival is given), within
+ * {@value #MAX_LAYOVER_DAYS} days. Depth is fixed at two legs, so a query touches only the
+ * origin's edges and the edges of their destinations. Origin nodes are looked up directly by the
+ * searched location ids and city keys, and edges carry their folded city keys, so a query never
+ * scans unrelated places or folds names.
+ *
+ * The graph follows {@link TripChangedEvent}s and is rebuilt nightly so departed trips drop out.
+ */
+@Component
+public class ConnectionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionIndex.class);
+
+    static final int MAX_LAYOVER_DAYS = 14;
+
+    // Candidates collected before sorting, bounding work for busy origins
+    private static final int MAX_CANDIDATES = 500;
+
+    private static final Comparator<Edge> BY_DEPARTURE =
+            Comparator.comparing(Edge::departureDate).thenComparing(Edge::tripId);
+
+    private final TripRepository tripRepository;
+    private final LocationDictionary locationDictionary;
+    // Read-write, so rebuilds run on the primary rather than a lagging replica
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    // Folded origin city -> keys of the nodes with trips leaving from a city spelled that way.
+    // Entries of removed trips may linger until their node empties; edges are matched exactly.
+    private final Map<String, Set<String>> nodeKeysByCityKey = new HashMap<>();
+    private final Map<Long, Edge> edgesByTripId = new HashMap<>();
+
+    // Events that arrive while the bootstrap query is running are replayed afterwards
+    private volatile boolean ready;
+    private final List<TripChangedEvent> pendingEvents = new ArrayList<>();
+
+    public ConnectionIndex(TripRepository tripRepository, LocationDictionary locationDictionary,
+                           PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.locationDictionary = locationDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Reload the whole graph from the database.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            pendingEvents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LocalDate today = LocalDate.now();
+        List<TripSnapshot> trips = transactionTemplate.execute(status ->
+                tripRepository.findListableSnapshotsDepartingFrom(TripStatus.OPEN, today));
+
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            nodeKeysByCityKey.clear();
+            edgesByTripId.clear();
+            for (TripSnapshot trip : trips) {
+                add(trip);
+            }
+            for (TripChangedEvent event : pendingEvents) {
+                apply(event.current(), today);
+            }
+            pendingEvents.clear();
+            ready = true;
+            log.info("Connection index loaded with {} trips over {} places", edgesByTripId.size(), nodes.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pendingEvents.add(event);
+                return;
+            }
+            apply(event.current(), LocalDate.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Itineraries from {@code from} to {@code to} departing on or after {@code earliest},
+     * as trip ids per leg, earliest arrival first, direct trips before connections on a tie.
+     */
+    public List<List<Long>> search(PlaceMatch from, PlaceMatch to, LocalDate earliest,
+                                   CapacityType capacityType, int limit) {
+        List<List<Edge>> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Node origin : origins(from)) {
+                if (found.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+                for (int i = origin.firstDepartingOn(earliest); i < origin.edges.size(); i++) {
+                    Edge first = origin.edges.get(i);
+                    if (!first.accepts(capacityType) || !from.matchesKey(first.fromCityKey(), first.fromLocationId())) {
+                        continue;
+                    }
+                    if (to.matchesKey(first.toCityKey(), first.toLocationId())) {
+                        found.add(List.of(first));
+                    } else if (first.toKey() != null) {
+                        collectSecondLegs(first, from, to, capacityType, found);
+                    }
+                    if (found.size() >= MAX_CANDIDATES) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return found.stream()
+                .sorted(Comparator.<List<Edge>, LocalDate>comparing(legs -> legs.get(legs.size() - 1).readyDate())
+                        .thenComparingInt(List::size)
+                        .thenComparing(legs -> legs.get(0).departureDate()))
+                .limit(limit)
+                .map(legs -> legs.stream().map(Edge::tripId).toList())
+                .toList();
+    }
+
+    /**
+     * Nodes that may hold trips leaving from {@code place}: the nodes of its locations and of
+     * every origin city spelled with one of its keys.
+     */
+    private Set<Node> origins(PlaceMatch place) {
+        Set<Node> origins = new LinkedHashSet<>();
+        for (Long locationId : place.locationIds()) {
+            Node node = nodes.get("loc:" + locationId);
+            if (node != null) {
+                origins.add(node);
+            }
+        }
+        for (String cityKey : place.cities()) {
+            for (String nodeKey : nodeKeysByCityKey.getOrDefault(cityKey, Set.of())) {
+                Node node = nodes.get(nodeKey);
+                if (node != null) {
+                    origins.add(node);
+                }
+            }
+        }
+        return origins;
+    }
+
+    private void collectSecondLegs(Edge first, PlaceMatch from, PlaceMatch to, CapacityType capacityType,
+                                   List<List<Edge>> found) {
+        Node via = nodes.get(first.toKey());
+        if (via == null) {
+            return;
+        }
+        LocalDate readyDate = first.readyDate();
+        LocalDate lastDeparture = readyDate.plusDays(MAX_LAYOVER_DAYS);
+        for (int j = via.firstDepartingOn(readyDate); j < via.edges.size(); j++) {
+            Edge second = via.edges.get(j);
+            if (second.departureDate().isAfter(lastDeparture)) {
+                break;
+            }
+            if (second.accepts(capacityType)
+                    && to.matchesKey(second.toCityKey(), second.toLocationId())
+                    && !from.matchesKey(second.toCityKey(), second.toLocationId())) {
+                found.add(List.of(first, second));
+            }
+        }
+    }
+
+    private void apply(TripSnapshot trip, LocalDate today) {
+        remove(trip.id());
+        if (trip.isSearchable(today)) {
+            add(trip);
+        }
+    }
+
+    private void add(TripSnapshot trip) {
+        String fromCityKey = SearchKeys.fold(trip.fromCity());
+        String toCityKey = SearchKeys.fold(trip.toCity());
+        String originKey = originKey(trip.fromLocationId(), fromCityKey);
+        Edge edge = new Edge(trip.id(), originKey, fromCityKey, trip.fromLocationId(), toCityKey, trip.toLocationId(),
+                nodeKey(trip.toLocationId(), toCityKey), trip.departureDate(), trip.arrivalDate(),
+                trip.capacityType(), trip.maxWeightKg());
+        nodes.computeIfAbsent(originKey, k -> new Node()).insert(edge);
+        nodeKeysByCityKey.computeIfAbsent(fromCityKey, k -> new HashSet<>()).add(originKey);
+        edgesByTripId.put(trip.id(), edge);
+    }
+
+    private void remove(Long tripId) {
+        Edge edge = edgesByTripId.remove(tripId);
+        if (edge == null) {
+            return;
+        }
+        Node node = nodes.get(edge.originKey());
+        if (node != null) {
+            node.edges.remove(edge);
+            if (node.edges.isEmpty()) {
+                nodes.remove(edge.originKey());
+                for (String cityKey : node.cityKeys) {
+                    nodeKeysByCityKey.computeIfPresent(cityKey, (k, keys) -> {
+                        keys.remove(edge.originKey());
+                        return keys.isEmpty() ? null : keys;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Graph node of a place: the dictionary city, or the folded free-text city. Countries are
+     * too coarse to change trips at, so they have no node key (null).
+     */
+    private String nodeKey(Long locationId, String cityKey) {
+        if (locationId != null) {
+            return locationDictionary.findById(locationId)
+                    .filter(location -> !location.isCountry())
+                    .map(location -> "loc:" + location.id())
+                    .orElse(null);
+        }
+        return "city:" + cityKey;
+    }
+
+    /**
+     * Node a trip leaves from. Country-level origins still need a node to be searchable from
+     * the country, they just never serve as a connection point.
+     */
+    private String originKey(Long locationId, String cityKey) {
+        String key = nodeKey(locationId, cityKey);
+        return key != null ? key : "loc:" + locationId;
+    }
+
+    private record Edge(Long tripId, String originKey, String fromCityKey, Long fromLocationId,
+                        String toCityKey, Long toLocationId,
+                        String toKey, LocalDate departureDate, LocalDate arrivalDate,
+                        CapacityType capacityType, BigDecimal maxWeightKg) {
+
+        /** First day the carried item is available at the destination. */
+        LocalDate readyDate() {
+            return arrivalDate != null ? arrivalDate : departureDate;
+        }
+
+        boolean accepts(CapacityType wanted) {
+            return wanted == null || wanted == capacityType;
+        }
+    }
+
+    private static final class Node {
+        // Origin city keys seen on this node's trips, unregistered when the node empties
+        final Set<String> cityKeys = new HashSet<>();
+        final List<Edge> edges = new ArrayList<>();
+
+        void insert(Edge edge) {
+            int i = 0;
+            int high = edges.size();
+            while (i < high) {
+                int mid = (i + high) >>> 1;
+                if (BY_DEPARTURE.compare(edges.get(mid), edge) < 0) {
+                    i = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            edges.add(i, edge);
+            cityKeys.add(edge.fromCityKey());
+        }
+
+        int firstDepartingOn(LocalDate date) {
+            int low = 0;
+            int high = edges.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (edges.get(mid).departureDate().isBefore(date)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar read index of the searchable hot set: OPEN, listable trips that have not departed yet.
+ *
+ * Each trip occupies one slot across parallel primitive arrays (interned city ids, epoch-day
+ * departure date, capacity-type ordinal, max weight), so a route search is a tight scan over a
+ * few small arrays with no database access. The index is loaded at startup and then kept up to
+ * date from {@link TripChangedEvent}s after each transaction commits. {@link #verify()} compares
+ * it against the database and repairs any drift.
+ */
+@Component
+public class OpenTripIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenTripIndex.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_LOCATION = -1;
+
+    // Trip ids occupy the low 40 bits of a packed search sort key
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private final TripRepository tripRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Interned city search keys (SearchKeys.fold, same values as CityNameIndex)
+    private final Map<String, Integer> cityIds = new HashMap<>();
+
+    // Columnar storage, one slot per trip; slots [0, size) are live
+    private long[] tripIds = new long[INITIAL_CAPACITY];
+    private int[] fromCityIds = new int[INITIAL_CAPACITY];
+    private int[] toCityIds = new int[INITIAL_CAPACITY];
+    // LocationDictionary ids, NO_LOCATION when unresolved
+    private int[] fromLocationIds = new int[INITIAL_CAPACITY];
+    private int[] toLocationIds = new int[INITIAL_CAPACITY];
+    private int[] departureDays = new int[INITIAL_CAPACITY];
+    private byte[] capacityTypes = new byte[INITIAL_CAPACITY];
+    private float[] maxWeights = new float[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> slotByTripId = new HashMap<>();
+
+    // Read-write, so index loads run on the primary: a lagging replica would look like drift
+    // or leave out trips created since its last replay
+    private final TransactionTemplate transactionTemplate;
+
+    // Events that arrive while the bootstrap query is running are replayed afterwards
+    private volatile boolean ready;
+    private final List<TripChangedEvent> pendingEvents = new ArrayList<>();
+
+    public OpenTripIndex(TripRepository tripRepository, PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild();
+    }
+
+    /**
+     * Reload the whole index from the database.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            pendingEvents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LocalDate today = LocalDate.now();
+        List<TripSnapshot> trips = loadSearchable(today);
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (TripSnapshot trip : trips) {
+                upsert(trip);
+            }
+            for (TripChangedEvent event : pendingEvents) {
+                apply(event.current(), today);
+            }
+            pendingEvents.clear();
+            ready = true;
+            log.info("Open trip index loaded with {} trips", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<TripSnapshot> loadSearchable(LocalDate today) {
+        return transactionTemplate.execute(status ->
+                tripRepository.findListableSnapshotsDepartingFrom(TripStatus.OPEN, today));
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pendingEvents.add(event);
+                return;
+            }
+            apply(event.current(), LocalDate.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find matching trip ids, ordered by departure date then id.
+     *
+     * @param from origin cities/locations to match, or null for any origin
+     * @param to   destination cities/locations to match, or null for any destination
+     * @param date exact departure date, or null for any upcoming date
+     */
+    public List<Long> search(PlaceMatch from, PlaceMatch to, LocalDate date, CapacityType capacityType) {
+        int today = (int) LocalDate.now().toEpochDay();
+        int day = date != null ? (int) date.toEpochDay() : -1;
+        int capacity = capacityType != null ? capacityType.ordinal() : -1;
+
+        lock.readLock().lock();
+        try {
+            BitSet fromMask = cityMask(from);
+            BitSet toMask = cityMask(to);
+            BitSet fromLocationMask = locationMask(from);
+            BitSet toLocationMask = locationMask(to);
+
+            // Sort key packs (days after today, trip id) so hits sort as plain longs
+            long[] keys = new long[Math.min(size, 64)];
+            int hitCount = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (departureDays[slot] < today
+                        || (day >= 0 && departureDays[slot] != day)
+                        || (capacity >= 0 && capacityTypes[slot] != capacity)
+                        || (fromMask != null && !matches(fromMask, fromCityIds[slot], fromLocationMask, fromLocationIds[slot]))
+                        || (toMask != null && !matches(toMask, toCityIds[slot], toLocationMask, toLocationIds[slot]))) {
+                    continue;
+                }
+                if (hitCount == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(16, hitCount * 2));
+                }
+                keys[hitCount++] = ((long) (departureDays[slot] - today) << ID_BITS) | tripIds[slot];
+            }
+            Arrays.sort(keys, 0, hitCount);
+
+            List<Long> result = new ArrayList<>(hitCount);
+            for (int i = 0; i < hitCount; i++) {
+                result.add(keys[i] & ID_MASK);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void scheduledVerify() {
+        verify();
+    }
+
+    /**
+     * Compare the index with {@link TripRepository} and rebuild it if they differ.
+     */
+    public ConsistencyReport verify() {
+        if (!ready) {
+            return new ConsistencyReport(0, 0, List.of(), List.of(), List.of());
+        }
+
+        LocalDate today = LocalDate.now();
+        List<TripSnapshot> expected = loadSearchable(today);
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> mismatched = new ArrayList<>();
+        List<Long> stale;
+        int indexed;
+
+        lock.readLock().lock();
+        try {
+            indexed = size;
+            Set<Long> expectedIds = new HashSet<>();
+            for (TripSnapshot trip : expected) {
+                expectedIds.add(trip.id());
+                Integer slot = slotByTripId.get(trip.id());
+                if (slot == null) {
+                    missing.add(trip.id());
+                } else if (!matches(slot, trip)) {
+                    mismatched.add(trip.id());
+                }
+            }
+            stale = new ArrayList<>();
+            for (int slot = 0; slot < size; slot++) {
+                if (departureDays[slot] >= today.toEpochDay() && !expectedIds.contains(tripIds[slot])) {
+                    stale.add(tripIds[slot]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ConsistencyReport report = new ConsistencyReport(indexed, expected.size(), missing, stale, mismatched);
+        if (!report.isConsistent()) {
+            log.warn("Open trip index drifted from database (missing={}, stale={}, mismatched={}); rebuilding",
+                    missing.size(), stale.size(), mismatched.size());
+            rebuild();
+        }
+        return report;
+    }
+
+    /**
+     * Drop trips whose departure date has passed. Runs shortly after midnight.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictDeparted() {
+        int today = (int) LocalDate.now().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            int before = size;
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (departureDays[slot] < today) {
+                    removeSlot(slot);
+                }
+            }
+            log.info("Evicted {} departed trips from open trip index", before - size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----- internals (callers hold the write lock) -----
+
+    private void apply(TripSnapshot trip, LocalDate today) {
+        if (trip.isSearchable(today)) {
+            upsert(trip);
+        } else {
+            remove(trip.id());
+        }
+    }
+
+    private void upsert(TripSnapshot trip) {
+        Integer slot = slotByTripId.get(trip.id());
+        if (slot == null) {
+            ensureCapacity(size + 1);
+            slot = size++;
+            slotByTripId.put(trip.id(), slot);
+        }
+        tripIds[slot] = trip.id();
+        fromCityIds[slot] = intern(trip.fromCity());
+        toCityIds[slot] = intern(trip.toCity());
+        fromLocationIds[slot] = trip.fromLocationId() != null ? trip.fromLocationId().intValue() : NO_LOCATION;
+        toLocationIds[slot] = trip.toLocationId() != null ? trip.toLocationId().intValue() : NO_LOCATION;
+        departureDays[slot] = (int) trip.departureDate().toEpochDay();
+        capacityTypes[slot] = (byte) trip.capacityType().ordinal();
+        maxWeights[slot] = trip.maxWeightKg() != null ? trip.maxWeightKg().floatValue() : Float.NaN;
+    }
+
+    private void remove(Long tripId) {
+        Integer slot = slotByTripId.get(tripId);
+        if (slot != null) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Remove a slot by moving the last live slot into its place.
+     */
+    private void removeSlot(int slot) {
+        slotByTripId.remove(tripIds[slot]);
+        int last = --size;
+        if (slot != last) {
+            tripIds[slot] = tripIds[last];
+            fromCityIds[slot] = fromCityIds[last];
+            toCityIds[slot] = toCityIds[last];
+            fromLocationIds[slot] = fromLocationIds[last];
+            toLocationIds[slot] = toLocationIds[last];
+            departureDays[slot] = departureDays[last];
+            capacityTypes[slot] = capacityTypes[last];
+            maxWeights[slot] = maxWeights[last];
+            slotByTripId.put(tripIds[slot], slot);
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        slotByTripId.clear();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= tripIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, tripIds.length * 2);
+        tripIds = Arrays.copyOf(tripIds, capacity);
+        fromCityIds = Arrays.copyOf(fromCityIds, capacity);
+        toCityIds = Arrays.copyOf(toCityIds, capacity);
+        fromLocationIds = Arrays.copyOf(fromLocationIds, capacity);
+        toLocationIds = Arrays.copyOf(toLocationIds, capacity);
+        departureDays = Arrays.copyOf(departureDays, capacity);
+        capacityTypes = Arrays.copyOf(capacityTypes, capacity);
+        maxWeights = Arrays.copyOf(maxWeights, capacity);
+    }
+
+    private int intern(String city) {
+        return cityIds.computeIfAbsent(SearchKeys.fold(city), c -> cityIds.size());
+    }
+
+    /**
+     * Bit mask of interned ids for the given place's cities, or null for "any place".
+     * Cities that were never interned cannot match and are skipped.
+     */
+    private BitSet cityMask(PlaceMatch place) {
+        if (place == null) {
+            return null;
+        }
+        BitSet mask = new BitSet(cityIds.size());
+        for (String city : place.cities()) {
+            Integer id = cityIds.get(city);
+            if (id != null) {
+                mask.set(id);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet locationMask(PlaceMatch place) {
+        if (place == null) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (Long id : place.locationIds()) {
+            mask.set(id.intValue());
+        }
+        return mask;
+    }
+
+    private static boolean matches(BitSet cityMask, int cityId, BitSet locationMask, int locationId) {
+        return cityMask.get(cityId) || (locationId != NO_LOCATION && locationMask.get(locationId));
+    }
+
+    private boolean matches(int slot, TripSnapshot trip) {
+        Integer from = cityIds.get(SearchKeys.fold(trip.fromCity()));
+        Integer to = cityIds.get(SearchKeys.fold(trip.toCity()));
+        float weight = trip.maxWeightKg() != null ? trip.maxWeightKg().floatValue() : Float.NaN;
+        return Objects.equals(from, fromCityIds[slot])
+                && Objects.equals(to, toCityIds[slot])
+                && fromLocationIds[slot] == (trip.fromLocationId() != null ? trip.fromLocationId().intValue() : NO_LOCATION)
+                && toLocationIds[slot] == (trip.toLocationId() != null ? trip.toLocationId().intValue() : NO_LOCATION)
+                && departureDays[slot] == trip.departureDate().toEpochDay()
+                && capacityTypes[slot] == trip.capacityType().ordinal()
+                && Float.compare(maxWeights[slot], weight) == 0;
+    }
+
+    /**
+     * Result of comparing the index with {@link TripRepository}.
+     */
+    public record ConsistencyReport(
+            int indexedCount,
+            int databaseCount,
+            List<Long> missingTripIds,
+            List<Long> staleTripIds,
+            List<Long> mismatchedTripIds
+    ) {
+        public boolean isConsistent() {
+            return missingTripIds.isEmpty() && staleTripIds.isEmpty() && mismatchedTripIds.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.SearchKeys;
+
+import java.util.Set;
+
+/**
+ * One side (origin or destination) of a resolved route search: the city search keys
+ * ({@link SearchKeys}) and the dictionary location ids it matches. A trip matches if either does.
+ */
+public record PlaceMatch(Set<String> cities, Set<Long> locationIds) {
+
+    public boolean matches(String city, Long locationId) {
+        return matchesKey(city != null ? SearchKeys.fold(city) : null, locationId);
+    }
+
+    /**
+     * {@link #matches} for a city that is already folded into its search key.
+     */
+    public boolean matchesKey(String cityKey, Long locationId) {
+        return (locationId != null && locationIds.contains(locationId))
+                || (cityKey != null && cities.contains(cityKey));
+    }
+}
@@ -0,0 +1,70 @@
+package com.habeshago.trip;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Number of open, listable trips departing on one day on one route.
+ * Maintained by {@link RouteRollups}; one row per (from_key, to_key, departure_date).
+ *
+ * Route ends are keyed by location id when the place is in the location dictionary
+ * ({@code loc:<id>}), otherwise by the city's search key ({@code city:<key>}, see
+ * {@link com.habeshago.location.SearchKeys#fold}).
+ */
+@Entity
+@Table(name = "route_day_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_route_day_rollup", columnNames = {"from_key", "to_key", "departure_date"})
+})
+public class RouteDayRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_key", nullable = false, length = 120)
+    private String fromKey;
+
+    @Column(name = "to_key", nullable = false, length = 120)
+    private String toKey;
+
+    @Column(name = "from_label", nullable = false, length = 100)
+    private String fromLabel;
+
+    @Column(name = "to_label", nullable = false, length = 100)
+    private String toLabel;
+
+    @Column(name = "departure_date", nullable = false)
+    private LocalDate departureDate;
+
+    @Column(name = "open_trips", nullable = false)
+    private Integer openTrips = 0;
+
+    protected RouteDayRollup() {
+    }
+
+    public RouteDayRollup(String fromKey, String toKey, String fromLabel, String toLabel,
+                          LocalDate departureDate, int openTrips) {
+        this.fromKey = fromKey;
+        this.toKey = toKey;
+        this.fromLabel = fromLabel;
+        this.toLabel = toLabel;
+        this.departureDate = departureDate;
+        this.openTrips = openTrips;
+    }
+
+    public Long getId() { return id; }
+
+    public String getFromKey() { return fromKey; }
+
+    public String getToKey() { return toKey; }
+
+    public String getFromLabel() { return fromLabel; }
+
+    public String getToLabel() { return toLabel; }
+
+    public LocalDate getDepartureDate() { return departureDate; }
+
+    public Integer getOpenTrips() { return openTrips; }
+    public void setOpenTrips(Integer openTrips) { this.openTrips = openTrips; }
+}
@@ -0,0 +1,48 @@
+package com.habeshago.trip;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RouteDayRollupRepository extends JpaRepository<RouteDayRollup, Long> {
+
+    List<RouteDayRollup> findByDepartureDateBetween(LocalDate from, LocalDate to);
+
+    boolean existsByDepartureDateBefore(LocalDate date);
+
+    @Modifying
+    @Query("UPDATE RouteDayRollup r SET r.openTrips = :openTrips " +
+           "WHERE r.fromKey = :fromKey AND r.toKey = :toKey AND r.departureDate = :departureDate")
+    int setOpenTrips(@Param("fromKey") String fromKey, @Param("toKey") String toKey,
+                     @Param("departureDate") LocalDate departureDate, @Param("openTrips") int openTrips);
+
+    @Modifying
+    @Query(value = "DELETE FROM route_day_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * Recompute all rollup rows for departures in [today, horizon) from trips in one GROUP BY.
+     * Route keys must match {@link RouteRollups#placeKey}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO route_day_rollups (from_key, to_key, from_label, to_label, departure_date, open_trips) " +
+           "SELECT k.from_key, k.to_key, MIN(k.from_city), MIN(k.to_city), k.departure_date, COUNT(*) " +
+           "FROM (SELECT " +
+           "    CASE WHEN t.from_location_id IS NOT NULL " +
+           "         THEN CONCAT('loc:', CAST(t.from_location_id AS VARCHAR(20))) " +
+           "         ELSE LEFT(CONCAT('city:', t.from_city_key), 120) END AS from_key, " +
+           "    CASE WHEN t.to_location_id IS NOT NULL " +
+           "         THEN CONCAT('loc:', CAST(t.to_location_id AS VARCHAR(20))) " +
+           "         ELSE LEFT(CONCAT('city:', t.to_city_key), 120) END AS to_key, " +
+           "    t.from_city, t.to_city, t.departure_date " +
+           "  FROM trips t " +
+           "  WHERE t.status = 'OPEN' AND t.listable = TRUE " +
+           "    AND t.departure_date >= :today AND t.departure_date < :horizon) k " +
+           "GROUP BY k.from_key, k.to_key, k.departure_date",
+           nativeQuery = true)
+    int insertFromTrips(@Param("today") LocalDate today, @Param("horizon") LocalDate horizon);
+}
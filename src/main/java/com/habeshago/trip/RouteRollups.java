@@ -0,0 +1,292 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.Location;
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.SearchKeys;
+import com.habeshago.trip.dto.RouteCalendarDto;
+import com.habeshago.trip.dto.TrendingRouteDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route departure calendars and trending routes for the next {@value #HORIZON_DAYS} days.
+ *
+ * Counts live in the {@code route_day_rollups} table, rebuilt from trips with a single GROUP BY
+ * nightly. On each {@link TripChangedEvent} the route-days the trip left and entered are recounted
+ * from trips and stored as absolute values, so an event that races a rebuild is never counted
+ * twice. At startup the snapshot is loaded from the table, which is only rebuilt if it is empty
+ * or still holds past days. Reads are served from an immutable in-memory snapshot of the table
+ * with the trending list precomputed, so they never touch the database. Writes copy the snapshot,
+ * which is cheap because the number of distinct routes is small compared to the number of trips.
+ */
+@Component
+public class RouteRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteRollups.class);
+
+    static final int HORIZON_DAYS = 90;
+    private static final int MAX_TRENDING = 50;
+    // Matches the from_key/to_key column length
+    private static final int MAX_KEY_LENGTH = 120;
+
+    private final RouteDayRollupRepository rollupRepository;
+    private final TripRepository tripRepository;
+    private final LocationDictionary locationDictionary;
+    private final TransactionTemplate transactionTemplate;
+    // Event listeners run after the trip transaction committed, so their writes need their own
+    private final TransactionTemplate listenerTransactionTemplate;
+
+    private volatile Snapshot snapshot = Snapshot.build(LocalDate.now(), Map.of());
+
+    public RouteRollups(RouteDayRollupRepository rollupRepository, TripRepository tripRepository,
+                        LocationDictionary locationDictionary, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.tripRepository = tripRepository;
+        this.locationDictionary = locationDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listenerTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.listenerTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Load the snapshot from the maintained table, rebuilding it first if it is empty or the
+     * nightly rebuild has not run since its oldest day passed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void bootstrap() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(HORIZON_DAYS);
+        List<RouteDayRollup> rows = transactionTemplate.execute(status ->
+                rollupRepository.existsByDepartureDateBefore(today) ? null
+                        : rollupRepository.findByDepartureDateBetween(today, horizon.minusDays(1)));
+        if (rows == null || rows.isEmpty()) {
+            rebuild();
+            return;
+        }
+        load(today, rows);
+        log.info("Route rollups loaded: {} routes, {} route-days", snapshot.routes.size(), rows.size());
+    }
+
+    /**
+     * Rebuild after midnight so the horizon moves forward and past days drop out.
+     */
+    @Scheduled(cron = "0 10 0 * * *")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Recompute the rollup table from trips and reload the snapshot.
+     */
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(HORIZON_DAYS);
+        List<RouteDayRollup> rows = transactionTemplate.execute(status -> {
+            rollupRepository.deleteAllRows();
+            rollupRepository.insertFromTrips(today, horizon);
+            return rollupRepository.findByDepartureDateBetween(today, horizon.minusDays(1));
+        });
+        load(today, rows);
+        log.info("Route rollups rebuilt: {} routes, {} route-days", snapshot.routes.size(), rows.size());
+    }
+
+    private void load(LocalDate today, List<RouteDayRollup> rows) {
+        Map<Route, RouteCalendar> routes = new HashMap<>();
+        for (RouteDayRollup row : rows) {
+            Route route = new Route(row.getFromKey(), row.getToKey());
+            RouteCalendar calendar = routes.computeIfAbsent(route, r -> new RouteCalendar(
+                    label(r.fromKey(), row.getFromLabel()), label(r.toKey(), row.getToLabel()),
+                    locationId(r.fromKey()), locationId(r.toKey()), new int[HORIZON_DAYS]));
+            calendar.counts()[(int) (row.getDepartureDate().toEpochDay() - today.toEpochDay())] += row.getOpenTrips();
+        }
+        snapshot = Snapshot.build(today, routes);
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        LocalDate today = LocalDate.now();
+        TripSnapshot before = event.previous() != null && event.previous().isSearchable(today) ? event.previous() : null;
+        TripSnapshot after = event.current().isSearchable(today) ? event.current() : null;
+        if (before != null && after != null && route(before).equals(route(after))
+                && before.departureDate().equals(after.departureDate())) {
+            return;
+        }
+        if (before != null) {
+            recount(before);
+        }
+        if (after != null) {
+            recount(after);
+        }
+    }
+
+    /**
+     * Recount the trip's route-day from trips and store the result. Runs after the trip's commit,
+     * so the count includes it (or its removal) whether or not a rebuild already did.
+     */
+    private synchronized void recount(TripSnapshot trip) {
+        Snapshot current = snapshot;
+        int offset = (int) (trip.departureDate().toEpochDay() - current.startDate.toEpochDay());
+        if (offset < 0 || offset >= HORIZON_DAYS) {
+            return;
+        }
+        Route route = route(trip);
+        String fromLabel = label(route.fromKey(), trip.fromCity());
+        String toLabel = label(route.toKey(), trip.toCity());
+
+        int openTrips;
+        try {
+            openTrips = storeCount(trip, route, fromLabel, toLabel);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the row first; it exists now
+            openTrips = storeCount(trip, route, fromLabel, toLabel);
+        }
+
+        Map<Route, RouteCalendar> routes = new HashMap<>(current.routes);
+        RouteCalendar calendar = routes.get(route);
+        if (calendar == null && openTrips == 0) {
+            return;
+        }
+        int[] counts = calendar != null ? calendar.counts().clone() : new int[HORIZON_DAYS];
+        counts[offset] = openTrips;
+        routes.put(route, calendar != null
+                ? new RouteCalendar(calendar.fromLabel(), calendar.toLabel(),
+                        calendar.fromLocationId(), calendar.toLocationId(), counts)
+                : new RouteCalendar(fromLabel, toLabel, locationId(route.fromKey()), locationId(route.toKey()), counts));
+        snapshot = Snapshot.build(current.startDate, routes);
+    }
+
+    private int storeCount(TripSnapshot trip, Route route, String fromLabel, String toLabel) {
+        LocalDate date = trip.departureDate();
+        return listenerTransactionTemplate.execute(status -> {
+            int openTrips = (int) tripRepository.countOpenOnRouteDay(
+                    trip.fromLocationId(), SearchKeys.fold(trip.fromCity()),
+                    trip.toLocationId(), SearchKeys.fold(trip.toCity()), date);
+            int updated = rollupRepository.setOpenTrips(route.fromKey(), route.toKey(), date, openTrips);
+            if (updated == 0 && openTrips > 0) {
+                rollupRepository.saveAndFlush(new RouteDayRollup(
+                        route.fromKey(), route.toKey(), fromLabel, toLabel, date, openTrips));
+            }
+            return openTrips;
+        });
+    }
+
+    /**
+     * Routes with the most open trips in the horizon, busiest first.
+     */
+    public List<TrendingRouteDto> trending(int limit) {
+        List<TrendingRouteDto> trending = snapshot.trending;
+        return trending.size() > limit ? trending.subList(0, limit) : trending;
+    }
+
+    /**
+     * Open trips per day on the route between two free-text places (city, alias, airport code
+     * or country), resolved the same way trips are.
+     */
+    public RouteCalendarDto calendar(String from, String to) {
+        Snapshot current = snapshot;
+        Route route = new Route(queryKey(from), queryKey(to));
+        RouteCalendar calendar = current.routes.get(route);
+        int[] counts = calendar != null ? calendar.counts() : new int[HORIZON_DAYS];
+
+        List<RouteCalendarDto.Day> days = new ArrayList<>(HORIZON_DAYS);
+        for (int i = 0; i < HORIZON_DAYS; i++) {
+            days.add(new RouteCalendarDto.Day(current.startDate.plusDays(i), counts[i]));
+        }
+        return new RouteCalendarDto(
+                calendar != null ? calendar.fromLabel() : label(route.fromKey(), from.trim()),
+                calendar != null ? calendar.toLabel() : label(route.toKey(), to.trim()),
+                current.startDate,
+                calendar != null ? calendar.total() : 0,
+                days);
+    }
+
+    private String queryKey(String text) {
+        return locationDictionary.resolve(text)
+                .map(location -> placeKey(location.id(), null))
+                .orElseGet(() -> placeKey(null, text.trim()));
+    }
+
+    private static Route route(TripSnapshot trip) {
+        return new Route(placeKey(trip.fromLocationId(), trip.fromCity()), placeKey(trip.toLocationId(), trip.toCity()));
+    }
+
+    /**
+     * Key of one route end: the dictionary location id if known, else the city's
+     * {@link SearchKeys#fold search key}, so spelling variants share one calendar.
+     * Must match the keys computed in {@link RouteDayRollupRepository#insertFromTrips}.
+     */
+    static String placeKey(Long locationId, String city) {
+        if (locationId != null) {
+            return "loc:" + locationId;
+        }
+        String key = "city:" + SearchKeys.fold(city);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static Long locationId(String key) {
+        return key.startsWith("loc:") ? Long.valueOf(key.substring(4)) : null;
+    }
+
+    private String label(String key, String city) {
+        return locationDictionary.findById(locationId(key)).map(Location::name).orElse(city);
+    }
+
+    private record Route(String fromKey, String toKey) {}
+
+    private record RouteCalendar(String fromLabel, String toLabel, Long fromLocationId, Long toLocationId,
+                                 int[] counts) {
+        int total() {
+            return Arrays.stream(counts).sum();
+        }
+
+        LocalDate nextDeparture(LocalDate startDate) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    return startDate.plusDays(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Snapshot {
+        final LocalDate startDate;
+        final Map<Route, RouteCalendar> routes;
+        final List<TrendingRouteDto> trending;
+
+        private Snapshot(LocalDate startDate, Map<Route, RouteCalendar> routes, List<TrendingRouteDto> trending) {
+            this.startDate = startDate;
+            this.routes = routes;
+            this.trending = trending;
+        }
+
+        static Snapshot build(LocalDate startDate, Map<Route, RouteCalendar> routes) {
+            List<TrendingRouteDto> trending = routes.values().stream()
+                    .map(c -> new TrendingRouteDto(c.fromLabel(), c.toLabel(), c.fromLocationId(), c.toLocationId(),
+                            c.total(), c.nextDeparture(startDate)))
+                    .filter(t -> t.openTrips() > 0)
+                    .sorted(Comparator.comparingInt(TrendingRouteDto::openTrips).reversed()
+                            .thenComparing(TrendingRouteDto::nextDeparture))
+                    .limit(MAX_TRENDING)
+                    .toList();
+            return new Snapshot(startDate, Map.copyOf(routes), trending);
+        }
+    }
+}
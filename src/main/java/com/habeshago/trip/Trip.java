@@ -13,7 +13,10 @@ import java.util.List;
 @Entity
 @Table(name = "trips", indexes = {
         @Index(name = "idx_trip_search", columnList = "from_city,to_city,departure_date"),
-        @Index(name = "idx_trip_user", columnList = "user_id")
+        @Index(name = "idx_trip_user", columnList = "user_id"),
+        @Index(name = "idx_trip_status_departure", columnList = "status,departure_date,id"),
+        @Index(name = "idx_trip_from_location", columnList = "from_location_id,departure_date"),
+        @Index(name = "idx_trip_to_location", columnList = "to_location_id,departure_date")
 })
 public class Trip {
 
@@ -43,6 +46,20 @@ public class Trip {
     @Column(name = "to_airport_code", length = 10)
     private String toAirportCode;
 
+    // LocationDictionary ids resolved from the free-text place fields (null if unknown)
+    @Column(name = "from_location_id")
+    private Long fromLocationId;
+
+    @Column(name = "to_location_id")
+    private Long toLocationId;
+
+    // SearchKeys.fold of the city fields; search matches on these instead of the raw text
+    @Column(name = "from_city_key", length = 255)
+    private String fromCityKey;
+
+    @Column(name = "to_city_key", length = 255)
+    private String toCityKey;
+
     @Column(name = "departure_date", nullable = false)
     private LocalDate departureDate;
 
@@ -56,6 +73,11 @@ public class Trip {
     @Column(name = "max_weight_kg")
     private BigDecimal maxWeightKg;
 
+    // Weight still available: maxWeightKg minus accepted and delivered requests; null when the
+    // trip has no max weight. Changed only by atomic SQL in TripCapacityLedger.
+    @Column(name = "remaining_weight_kg", updatable = false)
+    private BigDecimal remainingWeightKg;
+
     @Column(name = "notes", length = 2000)
     private String notes;
 
@@ -66,6 +88,21 @@ public class Trip {
     @Column(name = "cancellation_reason", length = 500)
     private String cancellationReason;
 
+    // False while the owner is suspended or deleted; kept in sync by TripService.syncOwnerListing
+    @Column(name = "listable", nullable = false)
+    private Boolean listable = true;
+
+    // Denormalized request counters, changed only by atomic SQL in TripRequestCounters.
+    // Not updatable through the entity so saving a loaded trip never overwrites them.
+    @Column(name = "request_count", nullable = false, updatable = false)
+    private Integer requestCount = 0;
+
+    @Column(name = "pending_request_count", nullable = false, updatable = false)
+    private Integer pendingRequestCount = 0;
+
+    @Column(name = "accepted_request_count", nullable = false, updatable = false)
+    private Integer acceptedRequestCount = 0;
+
     // Legacy single contact method fields (kept for backward compatibility)
     @Enumerated(EnumType.STRING)
     @Column(name = "contact_method", length = 20)
@@ -87,6 +124,11 @@ public class Trip {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Optimistic lock: concurrent read-modify-write of the same row fails instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "trip", fetch = FetchType.LAZY)
     private List<ItemRequest> requests = new ArrayList<>();
 
@@ -125,6 +167,18 @@ public class Trip {
     public String getToAirportCode() { return toAirportCode; }
     public void setToAirportCode(String toAirportCode) { this.toAirportCode = toAirportCode; }
 
+    public Long getFromLocationId() { return fromLocationId; }
+    public void setFromLocationId(Long fromLocationId) { this.fromLocationId = fromLocationId; }
+
+    public Long getToLocationId() { return toLocationId; }
+    public void setToLocationId(Long toLocationId) { this.toLocationId = toLocationId; }
+
+    public String getFromCityKey() { return fromCityKey; }
+    public void setFromCityKey(String fromCityKey) { this.fromCityKey = fromCityKey; }
+
+    public String getToCityKey() { return toCityKey; }
+    public void setToCityKey(String toCityKey) { this.toCityKey = toCityKey; }
+
     public LocalDate getDepartureDate() { return departureDate; }
     public void setDepartureDate(LocalDate departureDate) { this.departureDate = departureDate; }
 
@@ -137,15 +191,30 @@ public class Trip {
     public BigDecimal getMaxWeightKg() { return maxWeightKg; }
     public void setMaxWeightKg(BigDecimal maxWeightKg) { this.maxWeightKg = maxWeightKg; }
 
+    public BigDecimal getRemainingWeightKg() { return remainingWeightKg; }
+    public void setRemainingWeightKg(BigDecimal remainingWeightKg) { this.remainingWeightKg = remainingWeightKg; }
+
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
     public TripStatus getStatus() { return status; }
     public void setStatus(TripStatus status) { this.status = status; }
 
+    public Boolean getListable() { return listable; }
+    public void setListable(Boolean listable) { this.listable = listable; }
+
     public String getCancellationReason() { return cancellationReason; }
     public void setCancellationReason(String cancellationReason) { this.cancellationReason = cancellationReason; }
 
+    public Integer getRequestCount() { return requestCount; }
+    public void setRequestCount(Integer requestCount) { this.requestCount = requestCount; }
+
+    public Integer getPendingRequestCount() { return pendingRequestCount; }
+    public void setPendingRequestCount(Integer pendingRequestCount) { this.pendingRequestCount = pendingRequestCount; }
+
+    public Integer getAcceptedRequestCount() { return acceptedRequestCount; }
+    public void setAcceptedRequestCount(Integer acceptedRequestCount) { this.acceptedRequestCount = acceptedRequestCount; }
+
     public ContactMethod getContactMethod() { return contactMethod; }
     public void setContactMethod(ContactMethod contactMethod) { this.contactMethod = contactMethod; }
 
@@ -169,6 +238,7 @@ public class Trip {
 
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+    public Long getVersion() { return version; }
 
     public List<ItemRequest> getRequests() { return requests; }
     public void setRequests(List<ItemRequest> requests) { this.requests = requests; }
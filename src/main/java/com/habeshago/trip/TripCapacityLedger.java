@@ -0,0 +1,73 @@
+package com.habeshago.trip;
+
+import com.habeshago.common.ConflictException;
+import com.habeshago.request.ItemRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains {@link Trip#getRemainingWeightKg()}, the weight a trip can still take.
+ *
+ * It starts at the trip's max weight and is reduced by the weight of every accepted request
+ * with one conditional SQL decrement, so two concurrent accepts can never take the same
+ * kilograms: the second one finds too little left and fails. Trips without a max weight
+ * have no ledger (null) and accept any weight. Search filters on the column
+ * ({@code minRemainingKg}), so a change publishes a {@link TripChangedEvent} to evict
+ * cached results.
+ */
+@Component
+public class TripCapacityLedger {
+
+    private final TripRepository tripRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TripCapacityLedger(TripRepository tripRepository, ApplicationEventPublisher eventPublisher) {
+        this.tripRepository = tripRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Take the request's weight from its trip, in the caller's transaction.
+     * @throws ConflictException if the trip does not have that much capacity left
+     */
+    public void reserve(ItemRequest request) {
+        reserve(request.getTrip(), List.of(request));
+    }
+
+    /**
+     * Take the combined weight of {@code requests}, all on {@code trip}, with one update.
+     * @throws ConflictException if the trip does not have that much capacity left
+     */
+    public void reserve(Trip trip, List<ItemRequest> requests) {
+        BigDecimal weightKg = requests.stream()
+                .map(ItemRequest::getWeightKg)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (weightKg.signum() <= 0) {
+            return;
+        }
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        if (tripRepository.reserveCapacity(trip.getId(), requestIds) == 0) {
+            BigDecimal remaining = tripRepository.findRemainingWeightKg(trip.getId());
+            throw new ConflictException("Not enough capacity left on this trip: "
+                    + (remaining != null ? remaining.max(BigDecimal.ZERO).toPlainString() : "0") + " kg remaining");
+        }
+        if (trip.getRemainingWeightKg() != null) {
+            trip.setRemainingWeightKg(trip.getRemainingWeightKg().subtract(weightKg));
+            TripSnapshot snapshot = TripSnapshot.from(trip);
+            eventPublisher.publishEvent(new TripChangedEvent(TripChangedEvent.Type.UPDATED, snapshot, snapshot));
+        }
+    }
+
+    /**
+     * Recompute the remaining weight after the trip's max weight changed.
+     */
+    public void resize(Trip trip) {
+        tripRepository.recomputeRemainingWeight(trip.getId());
+        trip.setRemainingWeightKg(tripRepository.findRemainingWeightKg(trip.getId()));
+    }
+}
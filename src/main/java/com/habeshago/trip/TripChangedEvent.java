@@ -0,0 +1,22 @@
+package com.habeshago.trip;
+
+/**
+ * Published by {@link TripService} whenever a trip is created or changes state.
+ * Listeners should use {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param previous state before the change (null for CREATED)
+ * @param current  state after the change
+ */
+public record TripChangedEvent(Type type, TripSnapshot previous, TripSnapshot current) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        CANCELLED,
+        COMPLETED
+    }
+
+    public Long tripId() {
+        return current.id();
+    }
+}
@@ -1,10 +1,16 @@
 package com.habeshago.trip;
 
 import com.habeshago.auth.AuthInterceptor;
+import com.habeshago.trip.dto.CitySuggestionDto;
+import com.habeshago.trip.dto.ConnectionDto;
+import com.habeshago.trip.dto.RouteCalendarDto;
+import com.habeshago.trip.dto.TrendingRouteDto;
 import com.habeshago.trip.dto.TripCancelRequest;
 import com.habeshago.trip.dto.TripCreateRequest;
 import com.habeshago.trip.dto.TripDto;
+import com.habeshago.trip.dto.TripSearchPageDto;
 import com.habeshago.trip.dto.TripUpdateRequest;
+import com.habeshago.trip.dto.TripWindowSearchDto;
 import com.habeshago.user.User;
 import com.habeshago.user.UserDto;
 import com.habeshago.user.LanguageUpdateRequest;
@@ -15,6 +21,7 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -115,13 +122,109 @@ public class TripController {
         return ResponseEntity.ok(trip);
     }
 
+    /**
+     * Route search. {@code radiusKm} (max 300) also matches trips from/to known cities within
+     * that distance of {@code from}/{@code to}, nearest first. {@code sort=relevance} ranks by
+     * traveler reputation instead of departure date. {@code minRemainingKg} keeps only trips that
+     * can still take an item of that weight.
+     */
     @GetMapping("/trips/search")
     public ResponseEntity<List<TripDto>> searchTrips(
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(required = false) String date,
-            @RequestParam(required = false) String capacityType) {
-        return ResponseEntity.ok(tripService.searchTrips(from, to, date, capacityType));
+            @RequestParam(required = false) String capacityType,
+            @RequestParam(required = false) Integer radiusKm,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) BigDecimal minRemainingKg) {
+        return ResponseEntity.ok(tripService.searchTrips(from, to, date, capacityType, radiusKm, sort, minRemainingKg));
+    }
+
+    /**
+     * Cursor-paginated search. Pass the returned nextCursor as {@code cursor} to get the next page.
+     * {@code sort=relevance} pages by traveler reputation; cursors are only valid for the sort they came from.
+     * Reputation changes between requests can repeat or skip a trip across relevance pages.
+     * @param limit Page size (default 20, max 50)
+     */
+    @GetMapping("/trips/search/page")
+    public ResponseEntity<TripSearchPageDto> searchTripsPage(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String capacityType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) BigDecimal minRemainingKg) {
+        return ResponseEntity.ok(tripService.searchTripsPage(from, to, date, capacityType, cursor, limit, sort,
+                minRemainingKg));
+    }
+
+    /**
+     * Search a departure date window: {@code date} ± {@code days} (default 3), or
+     * {@code dateFrom}..{@code dateTo}. If nothing departs in the window, the nearest
+     * earlier and later trips on the route are returned.
+     */
+    @GetMapping("/trips/search/window")
+    public ResponseEntity<TripWindowSearchDto> searchTripsInWindow(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo,
+            @RequestParam(required = false) String capacityType,
+            @RequestParam(required = false) BigDecimal minRemainingKg) {
+        return ResponseEntity.ok(tripService.searchTripsInWindow(from, to, date, days, dateFrom, dateTo, capacityType,
+                minRemainingKg));
+    }
+
+    /**
+     * Direct trips and two-trip connections (the second leg departing on or after the first
+     * leg arrives, within 14 days), earliest arrival first.
+     * @param date Earliest departure (default today)
+     * @param limit Number of itineraries (default 10, max 30)
+     */
+    @GetMapping("/trips/connections")
+    public ResponseEntity<List<ConnectionDto>> searchConnections(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String capacityType,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(tripService.searchConnections(from, to, date, capacityType, limit));
+    }
+
+    /**
+     * Busiest routes by open trips departing in the next 90 days.
+     * @param limit Number of routes (default 10, max 50)
+     */
+    @GetMapping("/trips/routes/trending")
+    public ResponseEntity<List<TrendingRouteDto>> getTrendingRoutes(
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(tripService.getTrendingRoutes(limit));
+    }
+
+    /**
+     * Number of open trips departing each day for the next 90 days on a route.
+     */
+    @GetMapping("/trips/routes/calendar")
+    public ResponseEntity<RouteCalendarDto> getRouteCalendar(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(tripService.getRouteCalendar(from, to));
+    }
+
+    /**
+     * Autocomplete for city fields. Matches names, aliases (Latin or Ge'ez), airport codes
+     * and any word of a multi-word name, ranked by open trips.
+     * @param limit Number of suggestions (default 8, max 20)
+     */
+    @GetMapping("/trips/cities/suggest")
+    public ResponseEntity<List<CitySuggestionDto>> suggestCities(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(tripService.suggestCities(prefix, limit));
     }
 
     @PutMapping("/trips/{id}")
@@ -0,0 +1,94 @@
+package com.habeshago.trip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habeshago.trip.dto.TripDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of unmasked trip details for {@code GET /api/trips/{id}}, keyed by trip id and
+ * {@code updatedAt}.
+ *
+ * Callers read the trip's current {@code updatedAt} first (a primary-key lookup), so any write
+ * that bumps it, including bulk updates and writes on other instances, is a miss. Request
+ * counter changes do not bump {@code updatedAt}, so trip and request mutations also evict
+ * explicitly after commit. Traveler fields are not versioned and may be stale for up to the
+ * expiry time. Entries are never masked; callers mask per viewer after the lookup.
+ * Statistics are published to Micrometer as {@code cache.*{cache=trip.detail}}.
+ */
+@Component
+public class TripDetailCache {
+
+    private static final String CACHE_NAME = "trip.detail";
+
+    private final Cache<Key, TripDto> cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            // Bounds staleness of the traveler's name and reputation
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .recordStats()
+            .build();
+
+    // Bumped on every eviction so loads that raced a write are not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public TripDetailCache(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Return the cached trip for this version, loading it at most once across concurrent callers.
+     */
+    public TripDto get(Long tripId, Instant updatedAt, Supplier<TripDto> loader) {
+        Key key = new Key(tripId, updatedAt);
+        long startGeneration = generation.get();
+        TripDto trip = cache.get(key, k -> loader.get());
+        if (generation.get() != startGeneration) {
+            // A trip or request changed while this value was loading; serve it once but do not keep it
+            cache.asMap().remove(key, trip);
+        }
+        return trip;
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        evict(event.current().id());
+    }
+
+    /**
+     * Evict the trip now and again once the current transaction commits, so a reader that
+     * loaded the uncommitted state in between is not kept either.
+     */
+    public void evictAfterCommit(Long tripId) {
+        evict(tripId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tripId);
+                }
+            });
+        }
+    }
+
+    public void evict(Long tripId) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.tripId().equals(tripId));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private record Key(Long tripId, Instant updatedAt) {}
+}
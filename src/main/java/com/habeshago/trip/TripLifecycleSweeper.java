@@ -0,0 +1,195 @@
+package com.habeshago.trip;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habeshago.notification.NotificationOutbox;
+import com.habeshago.notification.NotificationService;
+import com.habeshago.notification.NotificationType;
+import com.habeshago.request.ItemRequest;
+import com.habeshago.request.ItemRequestRepository;
+import com.habeshago.request.RequestStatus;
+import com.habeshago.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closes trips and requests that can no longer progress, so the OPEN and PENDING working sets
+ * only hold what is still ahead.
+ *
+ * Open trips that departed before today become {@link TripStatus#EXPIRED}. Pending requests on
+ * a departed or no longer open trip become {@link RequestStatus#EXPIRED}, and each sender gets
+ * one {@link NotificationType#REQUESTS_EXPIRED} notification per chunk listing their items.
+ * Accepted requests are left alone: the traveler can still deliver them and complete the trip.
+ *
+ * Work is done in chunks of {@value #CHUNK_SIZE} rows, one short transaction each, so a large
+ * backlog never holds locks for long. Swept rows leave the queried set, so every chunk simply
+ * takes the next oldest rows. No {@link TripChangedEvent} is published: departed trips are
+ * already hidden from search and the in-memory indexes drop them on their nightly rebuild.
+ *
+ * Rows processed are published to Micrometer as {@code lifecycle.sweeper.rows{type=trips|requests}}.
+ */
+@Component
+public class TripLifecycleSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(TripLifecycleSweeper.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Rows updated per transaction
+    static final int CHUNK_SIZE = 500;
+
+    private final TripRepository tripRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final TripRequestCounters tripRequestCounters;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter expiredTrips;
+    private final Counter expiredRequests;
+    private final Counter notifications;
+    private final Timer duration;
+
+    public TripLifecycleSweeper(TripRepository tripRepository,
+                                ItemRequestRepository itemRequestRepository,
+                                TripRequestCounters tripRequestCounters,
+                                NotificationService notificationService,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.tripRepository = tripRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.tripRequestCounters = tripRequestCounters;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiredTrips = Counter.builder("lifecycle.sweeper.rows")
+                .tag("type", "trips")
+                .description("Departed open trips moved to EXPIRED")
+                .register(meterRegistry);
+        this.expiredRequests = Counter.builder("lifecycle.sweeper.rows")
+                .tag("type", "requests")
+                .description("Orphaned pending requests moved to EXPIRED")
+                .register(meterRegistry);
+        this.notifications = Counter.builder("lifecycle.sweeper.notifications")
+                .description("Expiry notifications enqueued for senders")
+                .register(meterRegistry);
+        this.duration = Timer.builder("lifecycle.sweeper.duration")
+                .description("Time taken by one sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sweep after midnight, once the previous day's departures are in the past.
+     */
+    @Scheduled(cron = "0 20 0 * * *")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    /**
+     * Expire departed trips, then the pending requests they (and other closed trips) left behind.
+     */
+    public synchronized void sweep() {
+        duration.record(() -> {
+            LocalDate today = LocalDate.now();
+            int trips = expireTrips(today);
+            int requests = expireRequests(today);
+            if (trips > 0 || requests > 0) {
+                log.info("Lifecycle sweep expired {} trips and {} pending requests", trips, requests);
+            }
+        });
+    }
+
+    /**
+     * @return number of trips expired
+     */
+    int expireTrips(LocalDate today) {
+        int total = 0;
+        while (true) {
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = tripRepository.findDepartedOpenTripIds(today, Limit.of(CHUNK_SIZE));
+                return new Chunk(ids.size(), ids.isEmpty() ? 0 : tripRepository.markExpired(ids, Instant.now()));
+            });
+            total += chunk.updated();
+            expiredTrips.increment(chunk.updated());
+            if (chunk.size() < CHUNK_SIZE) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * @return number of requests expired
+     */
+    int expireRequests(LocalDate today) {
+        int total = 0;
+        while (true) {
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<ItemRequest> requests = itemRequestRepository.findOrphanedPending(today, Limit.of(CHUNK_SIZE));
+                Map<Trip, Integer> perTrip = new HashMap<>();
+                Map<User, List<ItemRequest>> perSender = new LinkedHashMap<>();
+                for (ItemRequest request : requests) {
+                    request.setStatus(RequestStatus.EXPIRED);
+                    perTrip.merge(request.getTrip(), 1, Integer::sum);
+                    perSender.computeIfAbsent(request.getSenderUser(), u -> new ArrayList<>()).add(request);
+                }
+                perTrip.forEach((trip, count) ->
+                        tripRequestCounters.transition(trip, RequestStatus.PENDING, RequestStatus.EXPIRED, count));
+                perSender.forEach(this::notifyExpired);
+                return new Chunk(requests.size(), requests.size());
+            });
+            total += chunk.updated();
+            expiredRequests.increment(chunk.updated());
+            if (chunk.size() < CHUNK_SIZE) {
+                return total;
+            }
+        }
+    }
+
+    private void notifyExpired(User sender, List<ItemRequest> requests) {
+        try {
+            List<Map<String, Object>> items = new ArrayList<>(requests.size());
+            for (ItemRequest request : requests) {
+                Trip trip = request.getTrip();
+                Map<String, Object> item = new HashMap<>();
+                item.put("requestId", request.getId());
+                item.put("tripId", trip.getId());
+                item.put("itemDescription", request.getDescription());
+                item.put("route", trip.getFromCity() + " → " + trip.getToCity());
+                item.put("departureDate", trip.getDepartureDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+                items.add(item);
+            }
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", NotificationType.REQUESTS_EXPIRED.name());
+            payload.put("title", requests.size() == 1
+                    ? "Your item request has expired"
+                    : "Your item requests have expired");
+            payload.put("items", items);
+
+            NotificationOutbox outbox = new NotificationOutbox();
+            outbox.setUser(sender);
+            outbox.setType(NotificationType.REQUESTS_EXPIRED.name());
+            outbox.setPayload(objectMapper.writeValueAsString(payload));
+            notificationService.enqueueNotification(outbox);
+            notifications.increment();
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize request expiry payload for sender {}", sender.getId(), e);
+        }
+    }
+
+    private record Chunk(int size, int updated) {}
+}
@@ -0,0 +1,95 @@
+package com.habeshago.trip;
+
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Fills {@code from_location_id}/{@code to_location_id} for trips saved before the location
+ * dictionary existed, or whose place was added to the dataset later, and
+ * {@code from_city_key}/{@code to_city_key} for trips saved before search keys existed.
+ *
+ * Works on distinct (city, country, airport) combinations, so it costs one update per
+ * unresolved place rather than per trip, and is a no-op once everything resolvable is filled.
+ */
+@Component
+public class TripLocationBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(TripLocationBackfill.class);
+
+    private final TripRepository tripRepository;
+    private final LocationDictionary locationDictionary;
+    private final OpenTripIndex openTripIndex;
+    private final TripSearchCache tripSearchCache;
+    private final RouteRollups routeRollups;
+    private final CitySuggestIndex citySuggestIndex;
+
+    public TripLocationBackfill(TripRepository tripRepository, LocationDictionary locationDictionary,
+                                OpenTripIndex openTripIndex, TripSearchCache tripSearchCache,
+                                RouteRollups routeRollups, CitySuggestIndex citySuggestIndex) {
+        this.tripRepository = tripRepository;
+        this.locationDictionary = locationDictionary;
+        this.openTripIndex = openTripIndex;
+        this.tripSearchCache = tripSearchCache;
+        this.routeRollups = routeRollups;
+        this.citySuggestIndex = citySuggestIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = 0;
+        for (Object[] place : tripRepository.findUnresolvedOrigins()) {
+            Long locationId = resolve(place);
+            if (locationId != null) {
+                updated += tripRepository.setOriginLocation(
+                        (String) place[0], valueOrEmpty(place[1]), valueOrEmpty(place[2]), locationId);
+            }
+        }
+        for (Object[] place : tripRepository.findUnresolvedDestinations()) {
+            Long locationId = resolve(place);
+            if (locationId != null) {
+                updated += tripRepository.setDestinationLocation(
+                        (String) place[0], valueOrEmpty(place[1]), valueOrEmpty(place[2]), locationId);
+            }
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled location ids on {} trip endpoints", updated);
+            // Bulk updates bypass TripChangedEvent, so refresh the in-memory views directly
+            openTripIndex.rebuild();
+            tripSearchCache.clear();
+            routeRollups.rebuild();
+            citySuggestIndex.rebuild();
+        }
+
+        int keyed = 0;
+        for (String city : tripRepository.findOriginsWithoutSearchKey()) {
+            keyed += tripRepository.setOriginSearchKey(city, SearchKeys.fold(city));
+        }
+        for (String city : tripRepository.findDestinationsWithoutSearchKey()) {
+            keyed += tripRepository.setDestinationSearchKey(city, SearchKeys.fold(city));
+        }
+        if (keyed > 0) {
+            log.info("Backfilled search keys on {} trip endpoints", keyed);
+            tripSearchCache.clear();
+            // Free-text route keys are built from the search keys
+            routeRollups.rebuild();
+        }
+    }
+
+    private Long resolve(Object[] place) {
+        return locationDictionary.resolveTripLocation((String) place[0], (String) place[1], (String) place[2]);
+    }
+
+    private static String valueOrEmpty(Object value) {
+        return value != null ? (String) value : "";
+    }
+}
@@ -0,0 +1,56 @@
+package com.habeshago.trip;
+
+import com.habeshago.common.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for {@code sort=relevance} trip search pages.
+ * Encodes the (traveler ranking score, traveler id, trip id) sort key of the last trip on a page;
+ * the counterpart of {@link TripSearchCursor} for the date order.
+ *
+ * The score is live: it changes on acceptances, deliveries and reviews. If a traveler's score
+ * moves between two page requests, their trips can repeat on a later page or be skipped, so
+ * clients should de-duplicate by trip id. Every page is still correctly ordered.
+ */
+public record TripRankCursor(double rankingScore, Long userId, Long id) {
+
+    // Distinguishes these tokens from date cursors
+    private static final String PREFIX = "r";
+
+    public static TripRankCursor after(TripRow trip) {
+        return new TripRankCursor(trip.travelerRankingScore(), trip.userId(), trip.id());
+    }
+
+    public String encode() {
+        String raw = PREFIX + rankingScore + ":" + userId + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @return null if the token is blank (first page)
+     * @throws BadRequestException if the token is malformed
+     */
+    public static TripRankCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.startsWith(PREFIX) ? raw.substring(PREFIX.length()).split(":") : new String[0];
+            if (parts.length != 3) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new TripRankCursor(
+                    Double.parseDouble(parts[0]),
+                    Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
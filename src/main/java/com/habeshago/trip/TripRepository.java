@@ -1,13 +1,19 @@
 package com.habeshago.trip;
 
 import com.habeshago.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
@@ -20,19 +26,270 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
             TripStatus status
     );
 
-    @Query(value = "SELECT * FROM trips t WHERE t.status = CAST(:status AS VARCHAR) " +
-           "AND (CAST(:fromCity AS VARCHAR) IS NULL OR CAST(:fromCity AS VARCHAR) = '' OR LOWER(t.from_city) LIKE LOWER(CONCAT('%', CAST(:fromCity AS VARCHAR), '%'))) " +
-           "AND (CAST(:toCity AS VARCHAR) IS NULL OR CAST(:toCity AS VARCHAR) = '' OR LOWER(t.to_city) LIKE LOWER(CONCAT('%', CAST(:toCity AS VARCHAR), '%'))) " +
-           "AND (CAST(:departureDate AS DATE) IS NULL OR t.departure_date = CAST(:departureDate AS DATE)) " +
-           "ORDER BY t.departure_date ASC",
-           nativeQuery = true)
-    List<Trip> searchTrips(
-            @Param("fromCity") String fromCity,
-            @Param("toCity") String toCity,
+    /**
+     * Select clause for {@link TripRow}: trip columns, request counters and traveler reputation
+     * columns in one statement, so building DTOs needs no further queries.
+     */
+    String TRIP_ROW_SELECT = "SELECT new com.habeshago.trip.TripRow(" +
+            "t.id, t.fromCity, t.fromCountry, t.fromAirportCode, t.fromLocationId, " +
+            "t.toCity, t.toCountry, t.toAirportCode, t.toLocationId, " +
+            "t.departureDate, t.arrivalDate, t.capacityType, t.maxWeightKg, t.remainingWeightKg, t.notes, t.status, t.listable, " +
+            "t.cancellationReason, t.contactMethod, t.contactValue, t.contactTelegram, t.contactPhone, " +
+            "t.createdAt, t.updatedAt, " +
+            "u.id, u.firstName, u.lastName, u.username, u.verified, u.ratingAverage, u.ratingCount, " +
+            "u.completedTripsCount, u.completedDeliveriesCount, u.acceptedRequestsCount, u.rankingScore, " +
+            "t.requestCount, t.pendingRequestCount, t.acceptedRequestCount) " +
+            "FROM Trip t JOIN t.user u ";
+
+    /**
+     * Route filter shared by the search queries: OPEN, listable trips whose origin/destination
+     * matches the city search keys resolved through {@link CityNameIndex} or the
+     * location ids from {@link com.habeshago.location.LocationDictionary}.
+     * Pass anyFrom/anyTo = true to skip a side; its collections must still be non-empty.
+     */
+    String LISTABLE_ROUTE_FILTER = "WHERE t.status = com.habeshago.trip.TripStatus.OPEN AND t.listable = true " +
+            "AND (:anyFrom = true OR t.fromCityKey IN :fromCities OR t.fromLocationId IN :fromLocationIds) " +
+            "AND (:anyTo = true OR t.toCityKey IN :toCities OR t.toLocationId IN :toLocationIds) " +
+            "AND (:capacityType IS NULL OR t.capacityType = :capacityType) " +
+            "AND (:minRemainingKg IS NULL OR t.remainingWeightKg IS NULL OR t.remainingWeightKg >= :minRemainingKg) ";
+
+    @Query(TRIP_ROW_SELECT + "WHERE t.id IN :ids")
+    List<TripRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Version of a trip for {@link TripDetailCache}.
+     */
+    @Query("SELECT t.updatedAt FROM Trip t WHERE t.id = :id")
+    Optional<Instant> findUpdatedAtById(@Param("id") Long id);
+
+    /**
+     * A trip with its traveler, for responses that embed the traveler.
+     */
+    @Query("SELECT t FROM Trip t JOIN FETCH t.user WHERE t.id = :id")
+    Optional<Trip> findWithTravelerById(@Param("id") Long id);
+
+    @Query(TRIP_ROW_SELECT + "WHERE u.id = :userId ORDER BY t.departureDate DESC")
+    List<TripRow> findRowsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Route search over trips departing on or after {@code today}, optionally on one date.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate >= :today " +
+           "AND (:departureDate IS NULL OR t.departureDate = :departureDate) " +
+           "ORDER BY t.departureDate ASC, t.id ASC")
+    List<TripRow> searchTrips(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
+            @Param("departureDate") LocalDate departureDate,
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            @Param("today") LocalDate today
+    );
+
+    /**
+     * Keyset-paginated variant of {@link #searchTrips}.
+     * Rows are ordered by the stable (departure_date, id) key and start strictly after
+     * the cursor, so each page is a bounded index range read instead of an OFFSET scan.
+     * Capacity type is filtered in SQL so pages are never short.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate >= :today " +
+           "AND (:departureDate IS NULL OR t.departureDate = :departureDate) " +
+           "AND (:cursorDate IS NULL " +
+           "     OR t.departureDate > :cursorDate " +
+           "     OR (t.departureDate = :cursorDate AND t.id > :cursorId)) " +
+           "ORDER BY t.departureDate ASC, t.id ASC")
+    List<TripRow> searchTripsPage(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
+            @Param("departureDate") LocalDate departureDate,
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            @Param("today") LocalDate today,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") Long cursorId,
+            Limit limit
+    );
+
+    /**
+     * {@code sort=relevance} variant of {@link #searchTripsPage}: ordered by the traveler's
+     * precomputed ranking score, then traveler id, then trip id, starting strictly after the cursor.
+     * The (score, traveler) prefix matches users (ranking_score DESC, id) and the trip id order
+     * matches the listable trips (user_id, id) index, so with broad filters the database can walk
+     * travelers best-first and stop after the page; a selective route filter sorts its matches instead.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate >= :today " +
+           "AND (:departureDate IS NULL OR t.departureDate = :departureDate) " +
+           "AND (:cursorScore IS NULL " +
+           "     OR u.rankingScore < :cursorScore " +
+           "     OR (u.rankingScore = :cursorScore AND u.id > :cursorUserId) " +
+           "     OR (u.rankingScore = :cursorScore AND u.id = :cursorUserId AND t.id > :cursorId)) " +
+           "ORDER BY u.rankingScore DESC, u.id ASC, t.id ASC")
+    List<TripRow> searchTripsPageByRank(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
             @Param("departureDate") LocalDate departureDate,
-            @Param("status") String status
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            @Param("today") LocalDate today,
+            @Param("cursorScore") Double cursorScore,
+            @Param("cursorUserId") Long cursorUserId,
+            @Param("cursorId") Long cursorId,
+            Limit limit
     );
 
+    /**
+     * Trips departing within [dateFrom, dateTo], as a single range read on the
+     * (departure_date, id) order.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate BETWEEN :dateFrom AND :dateTo " +
+           "ORDER BY t.departureDate ASC, t.id ASC")
+    List<TripRow> searchTripsInWindow(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
+            @Param("dateFrom") LocalDate dateFrom,
+            @Param("dateTo") LocalDate dateTo,
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            Limit limit
+    );
+
+    /**
+     * Latest trips departing on or after {@code today} and strictly before {@code before}.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate >= :today AND t.departureDate < :before " +
+           "ORDER BY t.departureDate DESC, t.id DESC")
+    List<TripRow> findNearestBefore(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
+            @Param("before") LocalDate before,
+            @Param("today") LocalDate today,
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            Limit limit
+    );
+
+    /**
+     * Earliest trips departing strictly after {@code after}.
+     */
+    @Query(TRIP_ROW_SELECT + LISTABLE_ROUTE_FILTER +
+           "AND t.departureDate > :after " +
+           "ORDER BY t.departureDate ASC, t.id ASC")
+    List<TripRow> findNearestAfter(
+            @Param("anyFrom") boolean anyFrom,
+            @Param("fromCities") Collection<String> fromCities,
+            @Param("fromLocationIds") Collection<Long> fromLocationIds,
+            @Param("anyTo") boolean anyTo,
+            @Param("toCities") Collection<String> toCities,
+            @Param("toLocationIds") Collection<Long> toLocationIds,
+            @Param("after") LocalDate after,
+            @Param("capacityType") CapacityType capacityType,
+            @Param("minRemainingKg") BigDecimal minRemainingKg,
+            Limit limit
+    );
+
+    /**
+     * Searchable fields of listable trips in a status departing on or after a date, without loading entities.
+     * Used to bootstrap and verify {@link OpenTripIndex}.
+     */
+    @Query("SELECT new com.habeshago.trip.TripSnapshot(t.id, t.user.id, t.fromCity, t.toCity, " +
+           "t.fromLocationId, t.toLocationId, " +
+           "t.departureDate, t.arrivalDate, t.capacityType, t.maxWeightKg, t.status, t.listable) " +
+           "FROM Trip t WHERE t.status = :status AND t.listable = TRUE AND t.departureDate >= :fromDate")
+    List<TripSnapshot> findListableSnapshotsDepartingFrom(@Param("status") TripStatus status,
+                                                          @Param("fromDate") LocalDate fromDate);
+
+    @Query("SELECT new com.habeshago.trip.TripSnapshot(t.id, t.user.id, t.fromCity, t.toCity, " +
+           "t.fromLocationId, t.toLocationId, " +
+           "t.departureDate, t.arrivalDate, t.capacityType, t.maxWeightKg, t.status, t.listable) " +
+           "FROM Trip t WHERE t.user.id = :userId")
+    List<TripSnapshot> findSnapshotsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Set the listable flag on all trips by a user (hidden while the owner is suspended or deleted).
+     */
+    @Modifying
+    @Query("UPDATE Trip t SET t.listable = :listable WHERE t.user.id = :userId AND t.listable <> :listable")
+    int updateListableByUserId(@Param("userId") Long userId, @Param("listable") Boolean listable);
+
+    @Query(value = "SELECT DISTINCT from_city, from_country, from_airport_code FROM trips " +
+           "WHERE from_location_id IS NULL", nativeQuery = true)
+    List<Object[]> findUnresolvedOrigins();
+
+    @Query(value = "SELECT DISTINCT to_city, to_country, to_airport_code FROM trips " +
+           "WHERE to_location_id IS NULL", nativeQuery = true)
+    List<Object[]> findUnresolvedDestinations();
+
+    @Modifying
+    @Query(value = "UPDATE trips SET from_location_id = :locationId WHERE from_location_id IS NULL " +
+           "AND from_city = :city AND COALESCE(from_country, '') = :country " +
+           "AND COALESCE(from_airport_code, '') = :airportCode", nativeQuery = true)
+    int setOriginLocation(@Param("city") String city, @Param("country") String country,
+                          @Param("airportCode") String airportCode, @Param("locationId") Long locationId);
+
+    @Modifying
+    @Query(value = "UPDATE trips SET to_location_id = :locationId WHERE to_location_id IS NULL " +
+           "AND to_city = :city AND COALESCE(to_country, '') = :country " +
+           "AND COALESCE(to_airport_code, '') = :airportCode", nativeQuery = true)
+    int setDestinationLocation(@Param("city") String city, @Param("country") String country,
+                               @Param("airportCode") String airportCode, @Param("locationId") Long locationId);
+
+    /**
+     * Distinct origin cities of trips whose search key is not computed yet, for {@link TripLocationBackfill}.
+     */
+    @Query(value = "SELECT DISTINCT from_city FROM trips WHERE from_city_key IS NULL", nativeQuery = true)
+    List<String> findOriginsWithoutSearchKey();
+
+    @Query(value = "SELECT DISTINCT to_city FROM trips WHERE to_city_key IS NULL", nativeQuery = true)
+    List<String> findDestinationsWithoutSearchKey();
+
+    @Modifying
+    @Query(value = "UPDATE trips SET from_city_key = :key WHERE from_city = :city AND from_city_key IS NULL",
+           nativeQuery = true)
+    int setOriginSearchKey(@Param("city") String city, @Param("key") String key);
+
+    @Modifying
+    @Query(value = "UPDATE trips SET to_city_key = :key WHERE to_city = :city AND to_city_key IS NULL",
+           nativeQuery = true)
+    int setDestinationSearchKey(@Param("city") String city, @Param("key") String key);
+
+    /**
+     * Distinct lower-cased origin and destination cities, used to build {@link CityNameIndex}.
+     */
+    @Query(value = "SELECT LOWER(from_city) FROM trips UNION SELECT LOWER(to_city) FROM trips",
+           nativeQuery = true)
+    List<String> findDistinctCityNames();
+
+    /**
+     * Distinct origin and destination cities as typed, used as display names by {@link CitySuggestIndex}.
+     */
+    @Query(value = "SELECT from_city FROM trips UNION SELECT to_city FROM trips", nativeQuery = true)
+    List<String> findDistinctRawCityNames();
+
     /**
      * Update contact_value for all trips by a user that use TELEGRAM as contact method.
      * Called when user's Telegram username changes to keep contact info in sync.
@@ -50,4 +307,99 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
            "t.contactTelegram = NULL, t.contactPhone = NULL, t.updatedAt = CURRENT_TIMESTAMP " +
            "WHERE t.user.id = :userId")
     int anonymizeUserTrips(@Param("userId") Long userId);
+
+    /**
+     * Atomically shift a trip's request counters by the given deltas.
+     * Used by {@link TripRequestCounters}; never read-modify-write the counters in Java.
+     */
+    @Modifying
+    @Query("UPDATE Trip t SET t.requestCount = t.requestCount + :total, " +
+           "t.pendingRequestCount = t.pendingRequestCount + :pending, " +
+           "t.acceptedRequestCount = t.acceptedRequestCount + :accepted " +
+           "WHERE t.id = :tripId")
+    int adjustRequestCounts(@Param("tripId") Long tripId, @Param("total") int total,
+                            @Param("pending") int pending, @Param("accepted") int accepted);
+
+    /**
+     * Oldest open trips that departed before {@code today}, for {@link TripLifecycleSweeper}.
+     * Reads idx_trip_status_departure as a range scan.
+     */
+    @Query("SELECT t.id FROM Trip t WHERE t.status = com.habeshago.trip.TripStatus.OPEN " +
+           "AND t.departureDate < :today ORDER BY t.departureDate ASC, t.id ASC")
+    List<Long> findDepartedOpenTripIds(@Param("today") LocalDate today, Limit limit);
+
+    /**
+     * Move the given trips from OPEN to EXPIRED; trips whose status changed meanwhile are left alone.
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Trip t SET t.status = com.habeshago.trip.TripStatus.EXPIRED, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.status = com.habeshago.trip.TripStatus.OPEN")
+    int markExpired(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Take the combined weight of some of a trip's requests from its remaining capacity if enough
+     * is left; trips without a max weight always succeed. Weights are read from the request rows,
+     * so the caller cannot pass a different amount. Bumps the version, so a concurrent edit of the
+     * loaded trip fails. Used by {@link TripCapacityLedger}; never read-modify-write the remaining
+     * weight in Java.
+     * @return 0 when the trip does not have enough capacity left
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Trip t SET t.remainingWeightKg = t.remainingWeightKg - " +
+           "(SELECT COALESCE(SUM(r.weightKg), 0) FROM ItemRequest r WHERE r.id IN :requestIds) " +
+           "WHERE t.id = :tripId AND (t.remainingWeightKg IS NULL OR t.remainingWeightKg >= " +
+           "(SELECT COALESCE(SUM(r.weightKg), 0) FROM ItemRequest r WHERE r.id IN :requestIds))")
+    int reserveCapacity(@Param("tripId") Long tripId, @Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Recompute a trip's remaining capacity from its max weight and its accepted and delivered requests.
+     */
+    @Modifying
+    @Query("UPDATE Trip t SET t.remainingWeightKg = t.maxWeightKg - COALESCE((SELECT SUM(r.weightKg) " +
+           "FROM ItemRequest r WHERE r.trip = t AND r.status IN " +
+           "(com.habeshago.request.RequestStatus.ACCEPTED, com.habeshago.request.RequestStatus.DELIVERED)), 0) " +
+           "WHERE t.id = :tripId")
+    int recomputeRemainingWeight(@Param("tripId") Long tripId);
+
+    @Query("SELECT t.remainingWeightKg FROM Trip t WHERE t.id = :tripId")
+    BigDecimal findRemainingWeightKg(@Param("tripId") Long tripId);
+
+    /**
+     * Open, listable trips departing on one day on one route, for {@link RouteRollups}. Each end
+     * matches by location id, or when that is null, as a free-text city by its search key.
+     */
+    @Query("SELECT COUNT(t) FROM Trip t WHERE t.status = com.habeshago.trip.TripStatus.OPEN AND t.listable = true " +
+           "AND t.departureDate = :departureDate " +
+           "AND (t.fromLocationId = :fromLocationId " +
+           "     OR (:fromLocationId IS NULL AND t.fromLocationId IS NULL AND t.fromCityKey = :fromCityKey)) " +
+           "AND (t.toLocationId = :toLocationId " +
+           "     OR (:toLocationId IS NULL AND t.toLocationId IS NULL AND t.toCityKey = :toCityKey))")
+    long countOpenOnRouteDay(@Param("fromLocationId") Long fromLocationId, @Param("fromCityKey") String fromCityKey,
+                             @Param("toLocationId") Long toLocationId, @Param("toCityKey") String toCityKey,
+                             @Param("departureDate") LocalDate departureDate);
+
+    @Query("SELECT MAX(t.id) FROM Trip t")
+    Long findMaxId();
+
+    /**
+     * Recount request counters from item_requests for trips with id in (afterId, upToId],
+     * rewriting only rows that drifted.
+     * @return number of trips repaired
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE trips SET " +
+           "request_count = (SELECT COUNT(*) FROM item_requests r WHERE r.trip_id = trips.id), " +
+           "pending_request_count = (SELECT COUNT(*) FROM item_requests r " +
+           "    WHERE r.trip_id = trips.id AND r.status = 'PENDING'), " +
+           "accepted_request_count = (SELECT COUNT(*) FROM item_requests r " +
+           "    WHERE r.trip_id = trips.id AND r.status = 'ACCEPTED') " +
+           "WHERE id > :afterId AND id <= :upToId " +
+           "AND (request_count <> (SELECT COUNT(*) FROM item_requests r WHERE r.trip_id = trips.id) " +
+           "  OR pending_request_count <> (SELECT COUNT(*) FROM item_requests r " +
+           "      WHERE r.trip_id = trips.id AND r.status = 'PENDING') " +
+           "  OR accepted_request_count <> (SELECT COUNT(*) FROM item_requests r " +
+           "      WHERE r.trip_id = trips.id AND r.status = 'ACCEPTED'))",
+           nativeQuery = true)
+    int reconcileRequestCounts(@Param("afterId") long afterId, @Param("upToId") long upToId);
 }
@@ -0,0 +1,94 @@
+package com.habeshago.trip;
+
+import com.habeshago.request.RequestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the denormalized request counters on {@link Trip}
+ * (request_count, pending_request_count, accepted_request_count).
+ *
+ * Every request status change must go through {@link #transition}, inside the same transaction
+ * as the status change. The database row is shifted with an atomic SQL increment so concurrent
+ * transitions on the same trip never lose updates, and the loaded entity is shifted by the same
+ * delta so DTOs built later in the transaction see the new counts.
+ */
+@Component
+public class TripRequestCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(TripRequestCounters.class);
+
+    // Trips recounted per reconciliation statement
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+    private final TripRepository tripRepository;
+    private final TripDetailCache tripDetailCache;
+    private final TripSearchCache tripSearchCache;
+
+    public TripRequestCounters(TripRepository tripRepository, TripDetailCache tripDetailCache,
+                               TripSearchCache tripSearchCache) {
+        this.tripRepository = tripRepository;
+        this.tripDetailCache = tripDetailCache;
+        this.tripSearchCache = tripSearchCache;
+    }
+
+    /**
+     * Record that one request on {@code trip} moved from {@code from} to {@code to}.
+     * Use {@code from = null} for a newly created request.
+     */
+    public void transition(Trip trip, RequestStatus from, RequestStatus to) {
+        transition(trip, from, to, 1);
+    }
+
+    /**
+     * Record that {@code count} requests on {@code trip} moved from {@code from} to {@code to}.
+     */
+    public void transition(Trip trip, RequestStatus from, RequestStatus to, int count) {
+        if (count == 0 || from == to) {
+            return;
+        }
+        int total = from == null ? count : 0;
+        int pending = (to == RequestStatus.PENDING ? count : 0) - (from == RequestStatus.PENDING ? count : 0);
+        int accepted = (to == RequestStatus.ACCEPTED ? count : 0) - (from == RequestStatus.ACCEPTED ? count : 0);
+        if (total == 0 && pending == 0 && accepted == 0) {
+            return;
+        }
+
+        tripRepository.adjustRequestCounts(trip.getId(), total, pending, accepted);
+        // Counter changes do not bump updated_at or publish TripChangedEvent, so cached trip
+        // details and search results showing the trip must be dropped explicitly
+        tripDetailCache.evictAfterCommit(trip.getId());
+        tripSearchCache.evictAfterCommit(TripSnapshot.from(trip));
+        trip.setRequestCount(trip.getRequestCount() + total);
+        trip.setPendingRequestCount(trip.getPendingRequestCount() + pending);
+        trip.setAcceptedRequestCount(trip.getAcceptedRequestCount() + accepted);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Recount every trip's counters from item_requests and repair the ones that drifted
+     * (e.g. after manual data fixes). Works in id ranges so each statement stays short.
+     * @return number of trips repaired
+     */
+    public int reconcile() {
+        Long maxId = tripRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        int repaired = 0;
+        for (long afterId = 0; afterId < maxId; afterId += RECONCILE_CHUNK_SIZE) {
+            repaired += tripRepository.reconcileRequestCounts(afterId, afterId + RECONCILE_CHUNK_SIZE);
+        }
+        if (repaired > 0) {
+            tripDetailCache.clear();
+            log.warn("Repaired request counters on {} trips", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,55 @@
+package com.habeshago.trip;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Flat read projection of a trip with its traveler's reputation columns and request counts,
+ * loaded by a single JPQL constructor query (see {@link TripRepository#TRIP_ROW_SELECT}).
+ * Used by search and trip lists so building {@link com.habeshago.trip.dto.TripDto}s never
+ * touches the lazy {@code user} or {@code requests} associations.
+ */
+public record TripRow(
+        Long id,
+        String fromCity,
+        String fromCountry,
+        String fromAirportCode,
+        Long fromLocationId,
+        String toCity,
+        String toCountry,
+        String toAirportCode,
+        Long toLocationId,
+        LocalDate departureDate,
+        LocalDate arrivalDate,
+        CapacityType capacityType,
+        BigDecimal maxWeightKg,
+        BigDecimal remainingWeightKg,
+        String notes,
+        TripStatus status,
+        Boolean listable,
+        String cancellationReason,
+        ContactMethod contactMethod,
+        String contactValue,
+        String contactTelegram,
+        String contactPhone,
+        Instant createdAt,
+        Instant updatedAt,
+        // Traveler
+        Long userId,
+        String travelerFirstName,
+        String travelerLastName,
+        String travelerUsername,
+        Boolean travelerVerified,
+        Double travelerRatingAverage,
+        Integer travelerRatingCount,
+        Integer travelerCompletedTripsCount,
+        Integer travelerCompletedDeliveriesCount,
+        Integer travelerAcceptedRequestsCount,
+        Double travelerRankingScore,
+        // Requests on this trip
+        Integer requestCount,
+        Integer pendingRequestCount,
+        Integer acceptedRequestCount
+) {
+}
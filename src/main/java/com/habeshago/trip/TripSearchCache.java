@@ -0,0 +1,129 @@
+package com.habeshago.trip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habeshago.trip.dto.TripDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of route search results, keyed by the normalized search parameters.
+ *
+ * Concurrent misses for the same key are collapsed into one load. Entries remember which
+ * cities and locations their query resolved to, so a trip change only evicts the searches
+ * that could have returned that trip. Request counter changes publish no
+ * {@link TripChangedEvent}, so they evict explicitly through {@link #evictAfterCommit}.
+ * Hit/miss/eviction statistics are published to
+ * Micrometer as {@code cache.*{cache=trip.search}}.
+ */
+@Component
+public class TripSearchCache {
+
+    private static final String CACHE_NAME = "trip.search";
+
+    private final Cache<Key, Entry> cache = Caffeine.newBuilder()
+            .maximumSize(5000)
+            // Bounds staleness of date-less searches across midnight
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build();
+
+    // Bumped on every invalidation so loads that raced a write are not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter invalidations;
+
+    public TripSearchCache(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.invalidations = Counter.builder("cache.invalidations")
+                .tag("cache", CACHE_NAME)
+                .description("Route search entries evicted because a matching trip changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return cached results for the key, loading them at most once across concurrent callers.
+     */
+    public List<TripDto> get(Key key, Supplier<Entry> loader) {
+        long startGeneration = generation.get();
+        Entry entry = cache.get(key, k -> loader.get());
+        if (generation.get() != startGeneration) {
+            // A trip changed while this value was loading; serve it once but do not keep it
+            cache.asMap().remove(key, entry);
+        }
+        return entry.trips();
+    }
+
+    @TransactionalEventListener
+    public void onTripChanged(TripChangedEvent event) {
+        evict(event.previous(), event.current());
+    }
+
+    /**
+     * Evict the searches that could return the trip now and again once the current transaction
+     * commits, so a reader that loaded the uncommitted state in between is not kept either.
+     */
+    public void evictAfterCommit(TripSnapshot trip) {
+        evict(trip, null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(trip, null);
+                }
+            });
+        }
+    }
+
+    private void evict(TripSnapshot previous, TripSnapshot current) {
+        generation.incrementAndGet();
+        int before = cache.asMap().size();
+        cache.asMap().entrySet().removeIf(e ->
+                e.getValue().mayContain(e.getKey(), previous)
+                        || e.getValue().mayContain(e.getKey(), current));
+        int evicted = before - cache.asMap().size();
+        if (evicted > 0) {
+            invalidations.increment(evicted);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Normalized search parameters. {@code cityVersion} is {@link CityNameIndex#version()}, so
+     * results resolved against an older city vocabulary are never served.
+     */
+    public record Key(String from, String to, LocalDate date, CapacityType capacityType, Integer radiusKm,
+                      BigDecimal minRemainingKg, TripSearchSort sort, long cityVersion) {}
+
+    /**
+     * Cached results plus the places the query resolved to (null = any place).
+     */
+    public record Entry(PlaceMatch from, PlaceMatch to, List<TripDto> trips) {
+
+        boolean mayContain(Key key, TripSnapshot trip) {
+            if (trip == null) {
+                return false;
+            }
+            return (from == null || from.matches(trip.fromCity(), trip.fromLocationId()))
+                    && (to == null || to.matches(trip.toCity(), trip.toLocationId()))
+                    && (key.date() == null || key.date().equals(trip.departureDate()))
+                    && (key.capacityType() == null || key.capacityType() == trip.capacityType());
+        }
+    }
+}
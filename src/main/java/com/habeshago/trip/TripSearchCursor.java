@@ -0,0 +1,50 @@
+package com.habeshago.trip;
+
+import com.habeshago.common.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset-paginated trip search.
+ * Encodes the (departure_date, id) sort key of the last trip on a page,
+ * so the next page starts strictly after it regardless of table size.
+ */
+public record TripSearchCursor(LocalDate departureDate, Long id) {
+
+    public static TripSearchCursor after(TripRow trip) {
+        return new TripSearchCursor(trip.departureDate(), trip.id());
+    }
+
+    public String encode() {
+        String raw = departureDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @return null if the token is blank (first page)
+     * @throws BadRequestException if the token is malformed
+     */
+    public static TripSearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new TripSearchCursor(
+                    LocalDate.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.habeshago.trip;
+
+import com.habeshago.common.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Result order of trip search: by departure date (default), or by the traveler's
+ * precomputed ranking score ({@link com.habeshago.user.TravelerRanking}).
+ */
+public enum TripSearchSort {
+    DATE,
+    RELEVANCE;
+
+    /**
+     * Parse the {@code sort} request parameter; blank means {@link #DATE}.
+     */
+    public static TripSearchSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DATE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("sort must be 'date' or 'relevance'");
+        }
+    }
+}
@@ -5,26 +5,49 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.habeshago.common.BadRequestException;
 import com.habeshago.common.ForbiddenException;
 import com.habeshago.common.NotFoundException;
+import com.habeshago.location.LocationDictionary;
+import com.habeshago.location.NearbyCityIndex;
+import com.habeshago.location.SearchKeys;
 import com.habeshago.notification.NotificationOutbox;
 import com.habeshago.notification.NotificationService;
 import com.habeshago.notification.NotificationType;
 import com.habeshago.request.ItemRequest;
 import com.habeshago.request.RequestStatus;
+import com.habeshago.trip.dto.CitySuggestionDto;
+import com.habeshago.trip.dto.ConnectionDto;
+import com.habeshago.trip.dto.RouteCalendarDto;
+import com.habeshago.trip.dto.TrendingRouteDto;
 import com.habeshago.trip.dto.TripCreateRequest;
 import com.habeshago.trip.dto.TripDto;
+import com.habeshago.trip.dto.TripSearchPageDto;
 import com.habeshago.trip.dto.TripUpdateRequest;
+import com.habeshago.trip.dto.TripWindowSearchDto;
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
-import com.habeshago.user.UserRepository;
+import com.habeshago.user.UserReputationCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class TripService {
@@ -32,15 +55,77 @@ public class TripService {
     private static final Logger log = LoggerFactory.getLogger(TripService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Paginated search page size (hard cap prevents unbounded result sets)
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Date-window search limits
+    private static final int DEFAULT_WINDOW_DAYS = 3;
+    private static final int MAX_WINDOW_LENGTH_DAYS = 31;
+    private static final int MAX_WINDOW_RESULTS = 100;
+
+    // Nearby-city search radius cap
+    private static final int MAX_RADIUS_KM = 300;
+
+    // Trending routes list size
+    private static final int DEFAULT_TRENDING_LIMIT = 10;
+    private static final int MAX_TRENDING_LIMIT = 50;
+
+    // City autocomplete list size
+    private static final int DEFAULT_SUGGEST_LIMIT = 8;
+    private static final int MAX_SUGGEST_LIMIT = 20;
+
+    // Connection search result size
+    private static final int DEFAULT_CONNECTION_LIMIT = 10;
+    private static final int MAX_CONNECTION_LIMIT = 30;
+
     private final TripRepository tripRepository;
-    private final UserRepository userRepository;
+    private final UserReputationCounters userReputationCounters;
     private final NotificationService notificationService;
-
-    public TripService(TripRepository tripRepository, UserRepository userRepository,
-                       NotificationService notificationService) {
+    private final CityNameIndex cityNameIndex;
+    private final OpenTripIndex openTripIndex;
+    private final TripSearchCache tripSearchCache;
+    private final TripDetailCache tripDetailCache;
+    private final LocationDictionary locationDictionary;
+    private final NearbyCityIndex nearbyCityIndex;
+    private final TripRequestCounters tripRequestCounters;
+    private final TripCapacityLedger tripCapacityLedger;
+    private final RouteRollups routeRollups;
+    private final CitySuggestIndex citySuggestIndex;
+    private final TravelerRanking travelerRanking;
+    private final ConnectionIndex connectionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    // Cached reads run in their own read-write transaction, i.e. on the primary: a value read from
+    // a lagging replica right after an eviction would be kept with nothing left to evict it
+    private final TransactionTemplate cacheLoadTemplate;
+
+    public TripService(TripRepository tripRepository, UserReputationCounters userReputationCounters,
+                       NotificationService notificationService, CityNameIndex cityNameIndex,
+                       OpenTripIndex openTripIndex, TripSearchCache tripSearchCache, TripDetailCache tripDetailCache,
+                       LocationDictionary locationDictionary, NearbyCityIndex nearbyCityIndex,
+                       TripRequestCounters tripRequestCounters, TripCapacityLedger tripCapacityLedger,
+                       RouteRollups routeRollups,
+                       CitySuggestIndex citySuggestIndex, TravelerRanking travelerRanking,
+                       ConnectionIndex connectionIndex, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
         this.tripRepository = tripRepository;
-        this.userRepository = userRepository;
+        this.userReputationCounters = userReputationCounters;
         this.notificationService = notificationService;
+        this.cityNameIndex = cityNameIndex;
+        this.openTripIndex = openTripIndex;
+        this.tripSearchCache = tripSearchCache;
+        this.tripDetailCache = tripDetailCache;
+        this.locationDictionary = locationDictionary;
+        this.nearbyCityIndex = nearbyCityIndex;
+        this.tripRequestCounters = tripRequestCounters;
+        this.tripCapacityLedger = tripCapacityLedger;
+        this.routeRollups = routeRollups;
+        this.citySuggestIndex = citySuggestIndex;
+        this.travelerRanking = travelerRanking;
+        this.connectionIndex = connectionIndex;
+        this.eventPublisher = eventPublisher;
+        this.cacheLoadTemplate = new TransactionTemplate(transactionManager);
+        this.cacheLoadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Transactional
@@ -66,6 +151,7 @@ public class TripService {
         trip.setArrivalDate(req.getArrivalDate());
         trip.setCapacityType(req.getCapacityType());
         trip.setMaxWeightKg(req.getMaxWeightKg());
+        trip.setRemainingWeightKg(req.getMaxWeightKg());
         trip.setNotes(req.getNotes());
         trip.setStatus(TripStatus.OPEN);
 
@@ -92,7 +178,14 @@ public class TripService {
             }
         }
 
+        resolveLocations(trip);
+        applySearchKeys(trip);
         Trip saved = tripRepository.save(trip);
+        cityNameIndex.add(saved.getFromCity(), saved.getToCity());
+        // Score new travelers now instead of waiting for the nightly pass
+        travelerRanking.refresh(currentUser);
+        eventPublisher.publishEvent(new TripChangedEvent(
+                TripChangedEvent.Type.CREATED, null, TripSnapshot.from(saved)));
         return TripDto.from(saved);
     }
 
@@ -137,20 +230,40 @@ public class TripService {
 
     @Transactional(readOnly = true)
     public List<TripDto> getMyTrips(User currentUser) {
-        return tripRepository.findByUserOrderByDepartureDateDesc(currentUser).stream()
+        return tripRepository.findRowsByUserId(currentUser.getId()).stream()
                 .map(TripDto::from)
                 .toList();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Trip details with contact fields unmasked; callers mask them per viewer.
+     * Served from {@link TripDetailCache} after a version lookup, both on the primary.
+     */
     public TripDto getTrip(Long id) {
-        Trip trip = tripRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Trip not found"));
-        return TripDto.from(trip);
+        return cacheLoadTemplate.execute(status -> {
+            Instant updatedAt = tripRepository.findUpdatedAtById(id)
+                    .orElseThrow(() -> new NotFoundException("Trip not found"));
+            return tripDetailCache.get(id, updatedAt, () -> tripRepository.findRowsByIdIn(List.of(id)).stream()
+                    .findFirst()
+                    .map(TripDto::from)
+                    .orElseThrow(() -> new NotFoundException("Trip not found")));
+        });
     }
 
-    @Transactional(readOnly = true)
-    public List<TripDto> searchTrips(String from, String to, String date, String capacityType) {
+    /**
+     * Route search. With {@code radiusKm}, a city that is in the location dictionary also matches
+     * trips from/to dictionary cities within that distance, and results are ranked nearest first.
+     * With {@code sort=relevance}, travelers with the best ranking score come first.
+     * With {@code minRemainingKg}, only trips with at least that much weight left (or no max weight) match.
+     */
+    public List<TripDto> searchTrips(String from, String to, String date, String capacityType, Integer radiusKm,
+                                     String sort, BigDecimal minRemainingKg) {
+        TripSearchSort order = TripSearchSort.parse(sort);
+        BigDecimal minRemaining = parseMinRemaining(minRemainingKg);
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM)) {
+            throw new BadRequestException("radiusKm must be between 1 and " + MAX_RADIUS_KM);
+        }
+
         // Parse date if provided
         LocalDate departureDate = null;
         if (date != null && !date.isEmpty()) {
@@ -163,14 +276,422 @@ public class TripService {
             capType = CapacityType.valueOf(capacityType);
         }
 
-        List<Trip> trips = tripRepository.searchTrips(from, to, departureDate, TripStatus.OPEN.name());
-
-        // capacityType filter at app level if provided
+        TripSearchCache.Key key = new TripSearchCache.Key(
+                CityNameIndex.normalize(from), CityNameIndex.normalize(to),
+                departureDate, capType, radiusKm, minRemaining, order, cityNameIndex.version());
+        final LocalDate finalDate = departureDate;
         final CapacityType finalCapType = capType;
-        return trips.stream()
-                .filter(t -> finalCapType == null || t.getCapacityType() == finalCapType)
+        return tripSearchCache.get(key, () -> cacheLoadTemplate.execute(status ->
+                loadSearch(from, to, finalDate, finalCapType, radiusKm, minRemaining, order)));
+    }
+
+    private TripSearchCache.Entry loadSearch(String from, String to, LocalDate departureDate,
+                                             CapacityType capType, Integer radiusKm, BigDecimal minRemaining,
+                                             TripSearchSort order) {
+        // Resolve free-text cities to stored values; no match means no trips
+        CityFilter fromFilter = resolveCities(from, radiusKm);
+        CityFilter toFilter = resolveCities(to, radiusKm);
+        PlaceMatch fromPlace = fromFilter.toPlaceMatch();
+        PlaceMatch toPlace = toFilter.toPlaceMatch();
+        if (fromFilter.isEmpty() || toFilter.isEmpty()) {
+            return new TripSearchCache.Entry(fromPlace, toPlace, List.of());
+        }
+
+        List<TripRow> trips;
+        if (openTripIndex.isReady()) {
+            // Filter in memory, then load just the matching rows by primary key
+            List<Long> ids = openTripIndex.search(fromPlace, toPlace, departureDate, capType);
+            // Remaining capacity changes on every accept, so it is checked on the loaded rows
+            trips = loadInOrder(ids).stream()
+                    .filter(row -> hasCapacity(row, minRemaining))
+                    .toList();
+        } else {
+            trips = tripRepository.searchTrips(
+                    fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                    toFilter.any(), toFilter.cities(), toFilter.locations(),
+                    departureDate, capType, minRemaining, LocalDate.now());
+        }
+
+        // Nearest first, then best city match; the sort is stable so departure date order
+        // is kept within a rank
+        Comparator<TripRow> ranking = Comparator.comparingDouble(
+                        (TripRow t) -> fromFilter.distanceKm(t.fromLocationId())
+                                + toFilter.distanceKm(t.toLocationId()))
+                .thenComparing(Comparator.comparingDouble(
+                        (TripRow t) -> fromFilter.score(t.fromCity(), t.fromLocationId())
+                                * toFilter.score(t.toCity(), t.toLocationId())).reversed());
+        if (order == TripSearchSort.RELEVANCE) {
+            ranking = Comparator.comparingDouble(TripRow::travelerRankingScore).reversed().thenComparing(ranking);
+        }
+
+        List<TripDto> results = trips.stream()
+                .sorted(ranking)
                 .map(TripDto::from)
                 .toList();
+        return new TripSearchCache.Entry(fromPlace, toPlace, results);
+    }
+
+    private static BigDecimal parseMinRemaining(BigDecimal minRemainingKg) {
+        if (minRemainingKg == null) {
+            return null;
+        }
+        if (minRemainingKg.signum() < 0) {
+            throw new BadRequestException("minRemainingKg must not be negative");
+        }
+        // Normalized so 5, 5.0 and 5.00 share a search cache entry
+        return minRemainingKg.stripTrailingZeros();
+    }
+
+    private static boolean hasCapacity(TripRow row, BigDecimal minRemaining) {
+        return minRemaining == null || row.remainingWeightKg() == null
+                || row.remainingWeightKg().compareTo(minRemaining) >= 0;
+    }
+
+    private void applySearchKeys(Trip trip) {
+        trip.setFromCityKey(SearchKeys.fold(trip.getFromCity()));
+        trip.setToCityKey(SearchKeys.fold(trip.getToCity()));
+    }
+
+    private void resolveLocations(Trip trip) {
+        trip.setFromLocationId(locationDictionary.resolveTripLocation(
+                trip.getFromCity(), trip.getFromCountry(), trip.getFromAirportCode()));
+        trip.setToLocationId(locationDictionary.resolveTripLocation(
+                trip.getToCity(), trip.getToCountry(), trip.getToAirportCode()));
+    }
+
+    private List<TripRow> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TripRow> byId = new HashMap<>();
+        for (TripRow row : tripRepository.findRowsByIdIn(ids)) {
+            // The index may briefly lag a commit; never return a trip that stopped being listable
+            if (row.status() == TripStatus.OPEN && Boolean.TRUE.equals(row.listable())) {
+                byId.put(row.id(), row);
+            }
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private CityFilter resolveCities(String query) {
+        return resolveCities(query, null);
+    }
+
+    private CityFilter resolveCities(String query, Integer radiusKm) {
+        List<CityNameIndex.CityMatch> matches = cityNameIndex.match(query);
+        if (matches == null) {
+            return CityFilter.ANY;
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (CityNameIndex.CityMatch m : matches) {
+            scores.putIfAbsent(m.city(), m.score());
+        }
+        // Dictionary hits (names, aliases, airport codes, countries) match by location id,
+        // cities optionally widened to their neighbours within the radius
+        Map<Long, Double> distances = new LinkedHashMap<>();
+        locationDictionary.resolve(query).ifPresent(location -> {
+            if (radiusKm != null && !location.isCountry()) {
+                for (NearbyCityIndex.NearbyCity nearby : nearbyCityIndex.within(location, radiusKm)) {
+                    distances.putIfAbsent(nearby.location().id(), nearby.distanceKm());
+                }
+            } else {
+                locationDictionary.expand(location).forEach(id -> distances.put(id, 0.0));
+            }
+        });
+        return new CityFilter(false, scores, distances);
+    }
+
+    /**
+     * Resolved city filter for one side of a route search.
+     * When {@code any} is true the side is unfiltered.
+     */
+    private record CityFilter(boolean any, Map<String, Double> scores, Map<Long, Double> locationDistances) {
+        // IN lists may not be empty, so unused lists bind a placeholder that never matches
+        private static final Set<String> NO_CITIES = Set.of("");
+        private static final Set<Long> NO_LOCATIONS = Set.of(-1L);
+
+        static final CityFilter ANY = new CityFilter(true, Map.of(), Map.of());
+
+        boolean isEmpty() { return !any && scores.isEmpty() && locationDistances.isEmpty(); }
+
+        Collection<String> cities() { return scores.isEmpty() ? NO_CITIES : scores.keySet(); }
+
+        Collection<Long> locations() {
+            return locationDistances.isEmpty() ? NO_LOCATIONS : locationDistances.keySet();
+        }
+
+        PlaceMatch toPlaceMatch() {
+            return any ? null : new PlaceMatch(Set.copyOf(scores.keySet()), Set.copyOf(locationDistances.keySet()));
+        }
+
+        double score(String city, Long locationId) {
+            if (any || (locationId != null && locationDistances.containsKey(locationId))) {
+                return 1.0;
+            }
+            return scores.getOrDefault(SearchKeys.fold(city), 0.0);
+        }
+
+        /** Distance from the requested place; name-only matches count as the place itself. */
+        double distanceKm(Long locationId) {
+            return locationId != null ? locationDistances.getOrDefault(locationId, 0.0) : 0.0;
+        }
+    }
+
+    /**
+     * Cursor-paginated search. Results are ordered by (departureDate, id) and each call
+     * reads at most {@code limit + 1} rows, so cost stays flat as the trips table grows.
+     */
+    @Transactional(readOnly = true)
+    public TripSearchPageDto searchTripsPage(String from, String to, String date, String capacityType,
+                                             String cursor, Integer limit, String sort,
+                                             BigDecimal minRemainingKg) {
+        TripSearchSort order = TripSearchSort.parse(sort);
+        BigDecimal minRemaining = parseMinRemaining(minRemainingKg);
+        LocalDate departureDate = null;
+        if (date != null && !date.isEmpty()) {
+            departureDate = LocalDate.parse(date);
+        }
+
+        CapacityType capType = null;
+        if (capacityType != null && !capacityType.isEmpty()) {
+            capType = CapacityType.valueOf(capacityType);
+        }
+
+        CityFilter fromFilter = resolveCities(from);
+        CityFilter toFilter = resolveCities(to);
+        if (fromFilter.isEmpty() || toFilter.isEmpty()) {
+            return new TripSearchPageDto(List.of(), null, false);
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        List<TripRow> trips;
+        if (order == TripSearchSort.RELEVANCE) {
+            TripRankCursor after = TripRankCursor.decode(cursor);
+            trips = tripRepository.searchTripsPageByRank(
+                    fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                    toFilter.any(), toFilter.cities(), toFilter.locations(),
+                    departureDate, capType, minRemaining, LocalDate.now(),
+                    after != null ? after.rankingScore() : null,
+                    after != null ? after.userId() : null,
+                    after != null ? after.id() : null,
+                    Limit.of(pageSize + 1));
+        } else {
+            TripSearchCursor after = TripSearchCursor.decode(cursor);
+            trips = tripRepository.searchTripsPage(
+                    fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                    toFilter.any(), toFilter.cities(), toFilter.locations(),
+                    departureDate, capType, minRemaining, LocalDate.now(),
+                    after != null ? after.departureDate() : null,
+                    after != null ? after.id() : null,
+                    Limit.of(pageSize + 1));
+        }
+
+        boolean hasMore = trips.size() > pageSize;
+        List<TripRow> page = hasMore ? trips.subList(0, pageSize) : trips;
+        String nextCursor = null;
+        if (hasMore) {
+            TripRow last = page.get(page.size() - 1);
+            nextCursor = order == TripSearchSort.RELEVANCE
+                    ? TripRankCursor.after(last).encode()
+                    : TripSearchCursor.after(last).encode();
+        }
+
+        return new TripSearchPageDto(page.stream().map(TripDto::from).toList(), nextCursor, hasMore);
+    }
+
+    /**
+     * Search a departure date window in one bounded range query, either {@code date ± days}
+     * or {@code [dateFrom, dateTo]}. Dates before today are clamped to today.
+     * When the window is empty, the nearest earlier and later departures for the same
+     * route are returned instead, so clients do not have to probe date by date.
+     */
+    @Transactional(readOnly = true)
+    public TripWindowSearchDto searchTripsInWindow(String from, String to, String date, Integer days,
+                                                   String dateFrom, String dateTo, String capacityType,
+                                                   BigDecimal minRemainingKg) {
+        BigDecimal minRemaining = parseMinRemaining(minRemainingKg);
+        LocalDate start;
+        LocalDate end;
+        if (date != null && !date.isEmpty()) {
+            if ((dateFrom != null && !dateFrom.isEmpty()) || (dateTo != null && !dateTo.isEmpty())) {
+                throw new BadRequestException("Use either date/days or dateFrom/dateTo, not both");
+            }
+            int spread = days == null ? DEFAULT_WINDOW_DAYS : days;
+            if (spread < 0 || spread * 2 + 1 > MAX_WINDOW_LENGTH_DAYS) {
+                throw new BadRequestException("days must be between 0 and " + (MAX_WINDOW_LENGTH_DAYS - 1) / 2);
+            }
+            LocalDate center = LocalDate.parse(date);
+            start = center.minusDays(spread);
+            end = center.plusDays(spread);
+        } else {
+            start = dateFrom != null && !dateFrom.isEmpty() ? LocalDate.parse(dateFrom) : LocalDate.now();
+            end = dateTo != null && !dateTo.isEmpty() ? LocalDate.parse(dateTo) : start.plusDays(DEFAULT_WINDOW_DAYS * 2);
+        }
+        if (end.isBefore(start)) {
+            throw new BadRequestException("dateTo must not be before dateFrom");
+        }
+        if (end.toEpochDay() - start.toEpochDay() + 1 > MAX_WINDOW_LENGTH_DAYS) {
+            throw new BadRequestException("Date window cannot exceed " + MAX_WINDOW_LENGTH_DAYS + " days");
+        }
+
+        CapacityType capType = null;
+        if (capacityType != null && !capacityType.isEmpty()) {
+            capType = CapacityType.valueOf(capacityType);
+        }
+
+        CityFilter fromFilter = resolveCities(from);
+        CityFilter toFilter = resolveCities(to);
+        if (fromFilter.isEmpty() || toFilter.isEmpty()) {
+            return new TripWindowSearchDto(List.of(), start, end, false, null, null);
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = start.isBefore(today) ? today : start;
+
+        List<TripRow> trips = List.of();
+        if (!end.isBefore(windowStart)) {
+            trips = tripRepository.searchTripsInWindow(
+                    fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                    toFilter.any(), toFilter.cities(), toFilter.locations(),
+                    windowStart, end, capType, minRemaining, Limit.of(MAX_WINDOW_RESULTS + 1));
+        }
+
+        if (!trips.isEmpty()) {
+            boolean truncated = trips.size() > MAX_WINDOW_RESULTS;
+            List<TripDto> items = (truncated ? trips.subList(0, MAX_WINDOW_RESULTS) : trips).stream()
+                    .sorted(Comparator.comparingDouble(
+                            (TripRow t) -> fromFilter.score(t.fromCity(), t.fromLocationId())
+                                    * toFilter.score(t.toCity(), t.toLocationId())).reversed())
+                    .map(TripDto::from)
+                    .toList();
+            return new TripWindowSearchDto(items, start, end, truncated, null, null);
+        }
+
+        // Empty window: one LIMIT 1 probe on each side
+        TripDto earlier = tripRepository.findNearestBefore(
+                        fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                        toFilter.any(), toFilter.cities(), toFilter.locations(),
+                        windowStart, today, capType, minRemaining, Limit.of(1))
+                .stream().findFirst()
+                .map(TripDto::from)
+                .orElse(null);
+        LocalDate laterThan = end.isBefore(today) ? today.minusDays(1) : end;
+        TripDto later = tripRepository.findNearestAfter(
+                        fromFilter.any(), fromFilter.cities(), fromFilter.locations(),
+                        toFilter.any(), toFilter.cities(), toFilter.locations(),
+                        laterThan, capType, minRemaining, Limit.of(1))
+                .stream().findFirst()
+                .map(TripDto::from)
+                .orElse(null);
+        return new TripWindowSearchDto(List.of(), start, end, false, earlier, later);
+    }
+
+    /**
+     * Busiest routes by open trips departing in the next 90 days. Served from memory.
+     */
+    public List<TrendingRouteDto> getTrendingRoutes(Integer limit) {
+        int size = limit == null ? DEFAULT_TRENDING_LIMIT : Math.max(1, Math.min(limit, MAX_TRENDING_LIMIT));
+        return routeRollups.trending(size);
+    }
+
+    /**
+     * Open trips per departure day for the next 90 days on one route. Served from memory.
+     */
+    public RouteCalendarDto getRouteCalendar(String from, String to) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new BadRequestException("from and to are required");
+        }
+        return routeRollups.calendar(from, to);
+    }
+
+    /**
+     * Direct trips and two-trip connections from {@code from} to {@code to}, earliest arrival
+     * first. The route graph is searched in memory; the legs are then loaded in one query.
+     */
+    @Transactional(readOnly = true)
+    public List<ConnectionDto> searchConnections(String from, String to, String date, String capacityType,
+                                                 Integer limit) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new BadRequestException("from and to are required");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate earliest = date != null && !date.isEmpty() ? LocalDate.parse(date) : today;
+        if (earliest.isBefore(today)) {
+            earliest = today;
+        }
+        CapacityType capType = capacityType != null && !capacityType.isEmpty()
+                ? CapacityType.valueOf(capacityType) : null;
+        int size = limit == null ? DEFAULT_CONNECTION_LIMIT : Math.max(1, Math.min(limit, MAX_CONNECTION_LIMIT));
+
+        CityFilter fromFilter = resolveCities(from);
+        CityFilter toFilter = resolveCities(to);
+        if (fromFilter.isEmpty() || toFilter.isEmpty() || !connectionIndex.isReady()) {
+            return List.of();
+        }
+        List<List<Long>> itineraries = connectionIndex.search(
+                fromFilter.toPlaceMatch(), toFilter.toPlaceMatch(), earliest, capType, size);
+
+        Map<Long, TripRow> rows = new HashMap<>();
+        List<Long> ids = itineraries.stream().flatMap(List::stream).distinct().toList();
+        for (TripRow row : ids.isEmpty() ? List.<TripRow>of() : tripRepository.findRowsByIdIn(ids)) {
+            // The graph may briefly lag a commit; never return a trip that stopped being listable
+            if (row.status() == TripStatus.OPEN && Boolean.TRUE.equals(row.listable())) {
+                rows.put(row.id(), row);
+            }
+        }
+
+        List<ConnectionDto> connections = new ArrayList<>();
+        for (List<Long> itinerary : itineraries) {
+            List<TripRow> legs = itinerary.stream().map(rows::get).toList();
+            if (legs.contains(null)) {
+                continue;
+            }
+            TripRow first = legs.get(0);
+            TripRow last = legs.get(legs.size() - 1);
+            Integer layoverDays = null;
+            if (legs.size() > 1) {
+                LocalDate landed = first.arrivalDate() != null ? first.arrivalDate() : first.departureDate();
+                layoverDays = (int) (last.departureDate().toEpochDay() - landed.toEpochDay());
+            }
+            connections.add(new ConnectionDto(
+                    legs.size() > 1 ? first.toCity() : null,
+                    first.departureDate(),
+                    last.arrivalDate(),
+                    layoverDays,
+                    legs.stream().map(TripDto::from).toList()));
+        }
+        return connections;
+    }
+
+    /**
+     * City and country suggestions for a typed prefix, busiest first. Served from memory.
+     */
+    public List<CitySuggestionDto> suggestCities(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_SUGGEST_LIMIT : Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT));
+        return citySuggestIndex.suggest(prefix, size);
+    }
+
+    /**
+     * Hide or re-list a user's trips after their account is suspended, deleted or restored.
+     * Must be called after the user's suspended/deleted flags have been updated.
+     */
+    @Transactional
+    public void syncOwnerListing(User owner) {
+        boolean listable = !Boolean.TRUE.equals(owner.getSuspended()) && !Boolean.TRUE.equals(owner.getDeleted());
+        int changed = tripRepository.updateListableByUserId(owner.getId(), listable);
+        if (changed == 0) {
+            return;
+        }
+        for (TripSnapshot trip : tripRepository.findSnapshotsByUserId(owner.getId())) {
+            eventPublisher.publishEvent(new TripChangedEvent(
+                    TripChangedEvent.Type.UPDATED, trip.withListable(!listable), trip));
+        }
+        log.info("Set listable={} on {} trips of user {}", listable, changed, owner.getId());
     }
 
     @Transactional
@@ -189,29 +710,29 @@ public class TripService {
         }
 
         // Check if there are any accepted requests - block cancellation if so
-        long acceptedCount = trip.getRequests() != null
-                ? trip.getRequests().stream()
-                        .filter(r -> r.getStatus() == RequestStatus.ACCEPTED)
-                        .count()
-                : 0;
-
-        if (acceptedCount > 0) {
+        if (trip.getAcceptedRequestCount() > 0) {
             throw new BadRequestException("Cannot cancel trip with accepted requests. Please contact the senders first.");
         }
 
-        // Cancel all pending requests and notify senders
-        if (trip.getRequests() != null) {
+        // Cancel all pending requests and notify senders (only loads requests if there are any)
+        if (trip.getPendingRequestCount() > 0) {
+            int cancelled = 0;
             for (ItemRequest request : trip.getRequests()) {
                 if (request.getStatus() == RequestStatus.PENDING) {
                     request.setStatus(RequestStatus.CANCELLED_BY_TRAVELER);
                     notifyTripCancelled(request, trip, reason);
+                    cancelled++;
                 }
             }
+            tripRequestCounters.transition(trip, RequestStatus.PENDING, RequestStatus.CANCELLED_BY_TRAVELER, cancelled);
         }
 
+        TripSnapshot previous = TripSnapshot.from(trip);
         trip.setStatus(TripStatus.CANCELLED);
         trip.setCancellationReason(reason);
         tripRepository.save(trip);
+        eventPublisher.publishEvent(new TripChangedEvent(
+                TripChangedEvent.Type.CANCELLED, previous, TripSnapshot.from(trip)));
 
         return TripDto.from(trip);
     }
@@ -232,16 +753,12 @@ public class TripService {
         }
 
         // Check if there are any accepted requests - block edit if so
-        long acceptedCount = trip.getRequests() != null
-                ? trip.getRequests().stream()
-                        .filter(r -> r.getStatus() == RequestStatus.ACCEPTED)
-                        .count()
-                : 0;
-
-        if (acceptedCount > 0) {
+        if (trip.getAcceptedRequestCount() > 0) {
             throw new BadRequestException("Cannot edit trip with accepted requests");
         }
 
+        TripSnapshot previous = TripSnapshot.from(trip);
+
         // Update only provided fields
         if (req.getFromCity() != null) {
             trip.setFromCity(req.getFromCity());
@@ -289,7 +806,18 @@ public class TripService {
             throw new BadRequestException("Arrival date cannot be before departure date");
         }
 
+        resolveLocations(trip);
+        applySearchKeys(trip);
         Trip saved = tripRepository.save(trip);
+        if (req.getMaxWeightKg() != null) {
+            tripCapacityLedger.resize(saved);
+            if (saved.getRemainingWeightKg() != null && saved.getRemainingWeightKg().signum() < 0) {
+                throw new BadRequestException("Max weight cannot be less than the weight already accepted");
+            }
+        }
+        cityNameIndex.add(saved.getFromCity(), saved.getToCity());
+        eventPublisher.publishEvent(new TripChangedEvent(
+                TripChangedEvent.Type.UPDATED, previous, TripSnapshot.from(saved)));
         return TripDto.from(saved);
     }
 
@@ -331,13 +859,14 @@ public class TripService {
             throw new BadRequestException("Trip is already " + trip.getStatus().name().toLowerCase());
         }
 
+        TripSnapshot previous = TripSnapshot.from(trip);
         trip.setStatus(TripStatus.COMPLETED);
         tripRepository.save(trip);
+        eventPublisher.publishEvent(new TripChangedEvent(
+                TripChangedEvent.Type.COMPLETED, previous, TripSnapshot.from(trip)));
 
         // Update user's completed trips count
-        User user = trip.getUser();
-        user.setCompletedTripsCount(user.getCompletedTripsCount() + 1);
-        userRepository.save(user);
+        userReputationCounters.tripCompleted(trip.getUser());
 
         return TripDto.from(trip);
     }
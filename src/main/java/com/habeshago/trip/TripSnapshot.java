@@ -0,0 +1,54 @@
+package com.habeshago.trip;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the searchable fields of a trip.
+ * Carried by {@link TripChangedEvent} so listeners never touch a detached entity,
+ * and used as a lightweight JPQL projection when bootstrapping in-memory indexes.
+ */
+public record TripSnapshot(
+        Long id,
+        Long userId,
+        String fromCity,
+        String toCity,
+        Long fromLocationId,
+        Long toLocationId,
+        LocalDate departureDate,
+        LocalDate arrivalDate,
+        CapacityType capacityType,
+        BigDecimal maxWeightKg,
+        TripStatus status,
+        Boolean listable
+) {
+    public static TripSnapshot from(Trip trip) {
+        return new TripSnapshot(
+                trip.getId(),
+                trip.getUser() != null ? trip.getUser().getId() : null,
+                trip.getFromCity(),
+                trip.getToCity(),
+                trip.getFromLocationId(),
+                trip.getToLocationId(),
+                trip.getDepartureDate(),
+                trip.getArrivalDate(),
+                trip.getCapacityType(),
+                trip.getMaxWeightKg(),
+                trip.getStatus(),
+                trip.getListable()
+        );
+    }
+
+    public TripSnapshot withListable(boolean listable) {
+        return new TripSnapshot(id, userId, fromCity, toCity, fromLocationId, toLocationId, departureDate, arrivalDate,
+                capacityType, maxWeightKg, status, listable);
+    }
+
+    /**
+     * True if the trip belongs to the searchable hot set: open, listable and not yet departed.
+     */
+    public boolean isSearchable(LocalDate today) {
+        return status == TripStatus.OPEN && Boolean.TRUE.equals(listable)
+                && departureDate != null && !departureDate.isBefore(today);
+    }
+}
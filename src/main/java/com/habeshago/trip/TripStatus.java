@@ -5,5 +5,7 @@ public enum TripStatus {
     PARTIALLY_BOOKED,
     FULL,
     CANCELLED,
-    COMPLETED
+    COMPLETED,
+    // Departed while still open; set by TripLifecycleSweeper. The owner can still mark it completed.
+    EXPIRED
 }
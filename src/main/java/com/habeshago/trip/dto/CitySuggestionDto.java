@@ -0,0 +1,14 @@
+package com.habeshago.trip.dto;
+
+/**
+ * An autocomplete suggestion for a city or country field.
+ * Location id and country code are null for cities that are not in the location dictionary.
+ */
+public record CitySuggestionDto(
+        String name,
+        Long locationId,
+        String countryCode,
+        String type,
+        int openTrips
+) {
+}
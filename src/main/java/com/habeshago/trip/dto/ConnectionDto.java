@@ -0,0 +1,18 @@
+package com.habeshago.trip.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A way to get an item from origin to destination: one direct trip, or two trips that
+ * connect at {@code via}. {@code arrivalDate} is the last leg's arrival date if given.
+ * {@code layoverDays} is null for direct trips.
+ */
+public record ConnectionDto(
+        String via,
+        LocalDate departureDate,
+        LocalDate arrivalDate,
+        Integer layoverDays,
+        List<TripDto> legs
+) {
+}
@@ -0,0 +1,18 @@
+package com.habeshago.trip.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Open trips per departure day on one route, one entry per day starting at {@code startDate}.
+ */
+public record RouteCalendarDto(
+        String from,
+        String to,
+        LocalDate startDate,
+        int totalOpenTrips,
+        List<Day> days
+) {
+    public record Day(LocalDate date, int openTrips) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.habeshago.trip.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A route ranked by the number of open trips departing in the rollup horizon.
+ * Location ids are null when the city is not in the location dictionary.
+ */
+public record TrendingRouteDto(
+        String from,
+        String to,
+        Long fromLocationId,
+        Long toLocationId,
+        int openTrips,
+        LocalDate nextDeparture
+) {
+}
@@ -1,7 +1,9 @@
 package com.habeshago.trip.dto;
 
-import com.habeshago.request.RequestStatus;
 import com.habeshago.trip.Trip;
+import com.habeshago.trip.TripRow;
+import com.habeshago.trip.TripStatus;
+import com.habeshago.user.User;
 import com.habeshago.user.dto.TravelerInfoDto;
 
 import java.math.BigDecimal;
@@ -21,6 +23,8 @@ public record TripDto(
         LocalDate arrivalDate,
         String capacityType,
         BigDecimal maxWeightKg,
+        // Weight still available; null when the traveler set no max weight
+        BigDecimal remainingWeightKg,
         String notes,
         String status,
         String cancellationReason,
@@ -46,23 +50,7 @@ public record TripDto(
     }
 
     public static TripDto from(Trip trip, boolean includeTraveler) {
-        int totalRequests = trip.getRequests() != null ? trip.getRequests().size() : 0;
-        long pendingRequests = trip.getRequests() != null
-                ? trip.getRequests().stream()
-                        .filter(r -> r.getStatus() == RequestStatus.PENDING)
-                        .count()
-                : 0;
-        long acceptedRequests = trip.getRequests() != null
-                ? trip.getRequests().stream()
-                        .filter(r -> r.getStatus() == RequestStatus.ACCEPTED)
-                        .count()
-                : 0;
-
-        // Trip can be edited/cancelled only if there are no accepted requests
-        // and trip is in OPEN or PARTIALLY_BOOKED status
-        boolean canEdit = acceptedRequests == 0 &&
-                (trip.getStatus() == com.habeshago.trip.TripStatus.OPEN ||
-                 trip.getStatus() == com.habeshago.trip.TripStatus.PARTIALLY_BOOKED);
+        boolean canEdit = canEdit(trip.getStatus(), trip.getAcceptedRequestCount());
 
         return new TripDto(
                 trip.getId().toString(),
@@ -77,6 +65,7 @@ public record TripDto(
                 trip.getArrivalDate(),
                 trip.getCapacityType().name(),
                 trip.getMaxWeightKg(),
+                trip.getRemainingWeightKg(),
                 trip.getNotes(),
                 trip.getStatus().name(),
                 trip.getCancellationReason(),
@@ -87,13 +76,67 @@ public record TripDto(
                 trip.getCreatedAt(),
                 trip.getUpdatedAt(),
                 includeTraveler && trip.getUser() != null ? TravelerInfoDto.from(trip.getUser()) : null,
-                totalRequests,
-                (int) pendingRequests,
-                (int) acceptedRequests,
+                trip.getRequestCount(),
+                trip.getPendingRequestCount(),
+                trip.getAcceptedRequestCount(),
                 canEdit
         );
     }
 
+    /**
+     * Build from a {@link TripRow} projection; produces the same JSON as {@link #from(Trip)}.
+     */
+    public static TripDto from(TripRow row) {
+        TravelerInfoDto traveler = new TravelerInfoDto(
+                row.userId().toString(),
+                row.travelerFirstName(),
+                row.travelerLastName(),
+                row.travelerUsername(),
+                row.travelerVerified(),
+                row.travelerRatingAverage(),
+                row.travelerRatingCount(),
+                row.travelerCompletedTripsCount(),
+                row.travelerCompletedDeliveriesCount(),
+                User.completionRate(row.travelerAcceptedRequestsCount(), row.travelerCompletedDeliveriesCount())
+        );
+        return new TripDto(
+                row.id().toString(),
+                row.userId().toString(),
+                row.fromCity(),
+                row.fromCountry(),
+                row.fromAirportCode(),
+                row.toCity(),
+                row.toCountry(),
+                row.toAirportCode(),
+                row.departureDate(),
+                row.arrivalDate(),
+                row.capacityType().name(),
+                row.maxWeightKg(),
+                row.remainingWeightKg(),
+                row.notes(),
+                row.status().name(),
+                row.cancellationReason(),
+                row.contactMethod() != null ? row.contactMethod().name() : null,
+                row.contactValue(),
+                row.contactTelegram(),
+                row.contactPhone(),
+                row.createdAt(),
+                row.updatedAt(),
+                traveler,
+                row.requestCount(),
+                row.pendingRequestCount(),
+                row.acceptedRequestCount(),
+                canEdit(row.status(), row.acceptedRequestCount())
+        );
+    }
+
+    // Trip can be edited/cancelled only if there are no accepted requests
+    // and trip is in OPEN or PARTIALLY_BOOKED status
+    private static boolean canEdit(TripStatus status, long acceptedRequests) {
+        return acceptedRequests == 0 &&
+                (status == TripStatus.OPEN || status == TripStatus.PARTIALLY_BOOKED);
+    }
+
     /**
      * Creates a new TripDto with contact information masked.
      * Used for unauthenticated users or when contact should be hidden.
@@ -112,6 +155,7 @@ public record TripDto(
                 arrivalDate,
                 capacityType,
                 maxWeightKg,
+                remainingWeightKg,
                 notes,
                 status,
                 cancellationReason,
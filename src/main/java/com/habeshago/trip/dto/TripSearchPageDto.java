@@ -0,0 +1,15 @@
+package com.habeshago.trip.dto;
+
+import java.util.List;
+
+/**
+ * One page of trip search results.
+ * Pass {@code nextCursor} back as {@code cursor} to fetch the following page;
+ * it is null when there are no more results.
+ */
+public record TripSearchPageDto(
+        List<TripDto> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,20 @@
+package com.habeshago.trip.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Trips departing within a date window.
+ * When {@code items} is empty, {@code nearestEarlier} and {@code nearestLater} hold the
+ * closest departures for the same route before and after the window (either may be null).
+ * They are always null when the window has results.
+ */
+public record TripWindowSearchDto(
+        List<TripDto> items,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        boolean truncated,
+        TripDto nearestEarlier,
+        TripDto nearestLater
+) {
+}
@@ -6,7 +6,9 @@ import com.habeshago.auth.OAuthIdRecordRepository;
 import com.habeshago.common.BadRequestException;
 import com.habeshago.config.RetentionConfig;
 import com.habeshago.request.ItemRequestRepository;
+import com.habeshago.subscription.RouteSubscriptionService;
 import com.habeshago.trip.TripRepository;
+import com.habeshago.trip.TripService;
 import com.habeshago.user.dto.ContactMethodsDto;
 import com.habeshago.user.dto.UpdateContactMethodsRequest;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,18 +35,24 @@ public class MeController {
     private final UserRepository userRepository;
     private final OAuthIdRecordRepository oAuthIdRecordRepository;
     private final TripRepository tripRepository;
+    private final TripService tripService;
     private final ItemRequestRepository itemRequestRepository;
+    private final RouteSubscriptionService routeSubscriptionService;
     private final RetentionConfig retentionConfig;
 
     public MeController(UserRepository userRepository,
                         OAuthIdRecordRepository oAuthIdRecordRepository,
                         TripRepository tripRepository,
+                        TripService tripService,
                         ItemRequestRepository itemRequestRepository,
+                        RouteSubscriptionService routeSubscriptionService,
                         RetentionConfig retentionConfig) {
         this.userRepository = userRepository;
         this.oAuthIdRecordRepository = oAuthIdRecordRepository;
         this.tripRepository = tripRepository;
+        this.tripService = tripService;
         this.itemRequestRepository = itemRequestRepository;
+        this.routeSubscriptionService = routeSubscriptionService;
         this.retentionConfig = retentionConfig;
     }
 
@@ -185,6 +193,12 @@ public class MeController {
         int tripsAnonymized = tripRepository.anonymizeUserTrips(user.getId());
         int requestsAnonymized = itemRequestRepository.anonymizeUserRequests(user.getId());
 
+        // 8. Hide the user's trips from search
+        tripService.syncOwnerListing(user);
+
+        // 9. Stop route alerts
+        routeSubscriptionService.deactivateAll(user);
+
         log.info("Account {} deleted: {} trips and {} requests anonymized",
                 user.getId(), tripsAnonymized, requestsAnonymized);
 
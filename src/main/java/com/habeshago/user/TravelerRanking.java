@@ -0,0 +1,159 @@
+package com.habeshago.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Maintains {@link User#getRankingScore()}, the precomputed traveler score behind
+ * {@code sort=relevance} trip search.
+ *
+ * The score (0-100) blends a Bayesian-smoothed rating, the completion rate, the trust score,
+ * verification and how recently the traveler delivered. It is stored on the user and indexed
+ * so search can order by it in SQL. Callers refresh it in the same transaction as the change
+ * that affects it (review, acceptance, delivery, report, verification); a nightly pass
+ * recomputes every user so the recency part decays.
+ */
+@Component
+public class TravelerRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(TravelerRanking.class);
+
+    // Ratings are smoothed towards PRIOR_RATING as if every traveler had PRIOR_REVIEWS extra reviews
+    private static final double PRIOR_RATING = 4.0;
+    private static final int PRIOR_REVIEWS = 5;
+
+    // Completion rate assumed for travelers without accepted requests, and its weight in requests
+    private static final double PRIOR_COMPLETION = 0.8;
+    private static final int PRIOR_ACCEPTED = 3;
+
+    private static final double RECENCY_HALF_LIFE_DAYS = 90.0;
+
+    private static final double WEIGHT_RATING = 0.35;
+    private static final double WEIGHT_COMPLETION = 0.25;
+    private static final double WEIGHT_TRUST = 0.15;
+    private static final double WEIGHT_VERIFIED = 0.15;
+    private static final double WEIGHT_RECENCY = 0.10;
+
+    // Users recomputed per transaction by the nightly pass
+    private static final int RECOMPUTE_CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TravelerRanking(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recompute the score from the user's current fields. Works for managed and detached users:
+     * the column is written by {@link UserRepository#updateRankingScore} and only mirrored on the
+     * entity, which does not make a managed user dirty.
+     */
+    public void refresh(User user) {
+        double score = score(user, Instant.now());
+        if (user.getRankingScore() == null || Double.compare(user.getRankingScore(), score) != 0) {
+            user.setRankingScore(score);
+            userRepository.updateRankingScore(user.getId(), score);
+        }
+    }
+
+    /**
+     * Reload the user from the database, then recompute. Use after a bulk update of reputation
+     * columns (e.g. {@link UserRepository#updateRatingAtomically}), which the loaded entity does not see.
+     */
+    public void reloadAndRefresh(User user) {
+        entityManager.refresh(user);
+        refresh(user);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        recomputeAll();
+    }
+
+    @Scheduled(cron = "0 45 3 * * *")
+    public void scheduledRecompute() {
+        recomputeAll();
+    }
+
+    /**
+     * Recompute every user's score in id-ordered chunks, one transaction per chunk.
+     * @return number of scores that changed
+     */
+    public int recomputeAll() {
+        Instant now = Instant.now();
+        int changed = 0;
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(RECOMPUTE_CHUNK_SIZE));
+                int updated = 0;
+                for (User user : users) {
+                    double score = score(user, now);
+                    if (user.getRankingScore() == null || Double.compare(user.getRankingScore(), score) != 0) {
+                        updated += userRepository.updateRankingScore(user.getId(), score);
+                    }
+                }
+                return new Chunk(users.size(), updated, users.isEmpty() ? cursor : users.get(users.size() - 1).getId());
+            });
+            changed += chunk.updated();
+            if (chunk.size() < RECOMPUTE_CHUNK_SIZE) {
+                break;
+            }
+            afterId = chunk.lastId();
+        }
+        log.info("Recomputed traveler ranking scores, {} changed", changed);
+        return changed;
+    }
+
+    static double score(User user, Instant now) {
+        int ratingCount = user.getRatingCount() != null ? user.getRatingCount() : 0;
+        double ratingAverage = user.getRatingAverage() != null ? user.getRatingAverage() : PRIOR_RATING;
+        double rating = (PRIOR_RATING * PRIOR_REVIEWS + ratingAverage * ratingCount) / (PRIOR_REVIEWS + ratingCount);
+
+        int accepted = user.getAcceptedRequestsCount() != null ? user.getAcceptedRequestsCount() : 0;
+        Integer completionRate = user.getCompletionRate();
+        double completion = completionRate == null ? PRIOR_COMPLETION
+                : (Math.min(completionRate, 100) / 100.0 * accepted + PRIOR_COMPLETION * PRIOR_ACCEPTED)
+                        / (accepted + PRIOR_ACCEPTED);
+
+        int trustScore = user.getTrustScore() != null ? user.getTrustScore() : 100;
+        double trust = Math.max(0, Math.min(trustScore, 100)) / 100.0;
+
+        double verified = Boolean.TRUE.equals(user.getVerified()) ? 1.0 : 0.0;
+
+        double recency = 0.0;
+        if (user.getLastDeliveryAt() != null) {
+            double days = Math.max(0, Duration.between(user.getLastDeliveryAt(), now).toHours() / 24.0);
+            recency = Math.pow(0.5, days / RECENCY_HALF_LIFE_DAYS);
+        }
+
+        double score = WEIGHT_RATING * (rating - 1) / 4
+                + WEIGHT_COMPLETION * completion
+                + WEIGHT_TRUST * trust
+                + WEIGHT_VERIFIED * verified
+                + WEIGHT_RECENCY * recency;
+        // Two decimals are enough to rank and keep nightly recomputes from rewriting every row
+        return Math.round(score * 10000) / 100.0;
+    }
+
+    private record Chunk(int size, int updated, long lastId) {}
+}
@@ -142,23 +142,32 @@ public class User {
     @Column(name = "verification_reviewed_at")
     private Instant verificationReviewedAt;
 
-    // Reputation fields (denormalized for fast reads)
-    @Column(name = "rating_average")
+    // Reputation fields (denormalized for fast reads). Changed only by atomic SQL
+    // (UserRepository.updateRatingAtomically, UserReputationCounters), so saving a loaded
+    // user never overwrites a concurrent increment.
+    @Column(name = "rating_average", updatable = false)
     private Double ratingAverage;
 
-    @Column(name = "rating_count", nullable = false)
+    @Column(name = "rating_count", nullable = false, updatable = false)
     private Integer ratingCount = 0;
 
-    @Column(name = "completed_trips_count", nullable = false)
+    @Column(name = "completed_trips_count", nullable = false, updatable = false)
     private Integer completedTripsCount = 0;
 
-    @Column(name = "completed_deliveries_count", nullable = false)
+    @Column(name = "completed_deliveries_count", nullable = false, updatable = false)
     private Integer completedDeliveriesCount = 0;
 
     // Track accepted requests to calculate completion rate
-    @Column(name = "accepted_requests_count", nullable = false)
+    @Column(name = "accepted_requests_count", nullable = false, updatable = false)
     private Integer acceptedRequestsCount = 0;
 
+    @Column(name = "last_delivery_at", updatable = false)
+    private Instant lastDeliveryAt;
+
+    // Precomputed search ranking, written only by TravelerRanking via UserRepository.updateRankingScore
+    @Column(name = "ranking_score", nullable = false, updatable = false)
+    private Double rankingScore = 0.0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -305,11 +314,24 @@ public class User {
     public Integer getAcceptedRequestsCount() { return acceptedRequestsCount; }
     public void setAcceptedRequestsCount(Integer acceptedRequestsCount) { this.acceptedRequestsCount = acceptedRequestsCount; }
 
+    public Instant getLastDeliveryAt() { return lastDeliveryAt; }
+    public void setLastDeliveryAt(Instant lastDeliveryAt) { this.lastDeliveryAt = lastDeliveryAt; }
+
+    public Double getRankingScore() { return rankingScore; }
+    public void setRankingScore(Double rankingScore) { this.rankingScore = rankingScore; }
+
     /**
      * Calculate completion rate as percentage.
      * Returns null if no accepted requests yet (shows as "New traveler").
      */
     public Integer getCompletionRate() {
+        return completionRate(acceptedRequestsCount, completedDeliveriesCount);
+    }
+
+    /**
+     * Completion rate from raw counters, for read paths that project columns instead of loading the entity.
+     */
+    public static Integer completionRate(Integer acceptedRequestsCount, Integer completedDeliveriesCount) {
         if (acceptedRequestsCount == null || acceptedRequestsCount == 0) {
             return null; // No data yet
         }
@@ -1,10 +1,14 @@
 package com.habeshago.user;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -38,4 +42,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "u.updatedAt = CURRENT_TIMESTAMP " +
            "WHERE u.id = :userId")
     void updateRatingAtomically(@Param("userId") Long userId, @Param("rating") int rating);
+
+    /**
+     * Reputation counter increments for {@link UserReputationCounters}. Derived data, so
+     * updated_at is left alone.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.acceptedRequestsCount = u.acceptedRequestsCount + :count WHERE u.id = :userId")
+    int incrementAcceptedRequests(@Param("userId") Long userId, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE User u SET u.completedDeliveriesCount = u.completedDeliveriesCount + 1, " +
+           "u.lastDeliveryAt = :deliveredAt WHERE u.id = :userId")
+    int incrementCompletedDeliveries(@Param("userId") Long userId, @Param("deliveredAt") Instant deliveredAt);
+
+    @Modifying
+    @Query("UPDATE User u SET u.completedTripsCount = u.completedTripsCount + 1 WHERE u.id = :userId")
+    int incrementCompletedTrips(@Param("userId") Long userId);
+
+    @Query("SELECT MAX(u.id) FROM User u")
+    Long findMaxId();
+
+    /**
+     * Recount reputation counters from item_requests and trips for users with ids in
+     * ({@code afterId}, {@code upToId}], touching only rows that drifted. Accepted requests only
+     * ever move on to DELIVERED, so accepted = ACCEPTED + DELIVERED.
+     * @return number of users repaired
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+           "accepted_requests_count = (SELECT COUNT(*) FROM item_requests r " +
+           "    WHERE r.traveler_id = users.id AND r.status IN ('ACCEPTED', 'DELIVERED')), " +
+           "completed_deliveries_count = (SELECT COUNT(*) FROM item_requests r " +
+           "    WHERE r.traveler_id = users.id AND r.status = 'DELIVERED'), " +
+           "completed_trips_count = (SELECT COUNT(*) FROM trips t " +
+           "    WHERE t.user_id = users.id AND t.status = 'COMPLETED') " +
+           "WHERE id > :afterId AND id <= :upToId " +
+           "AND (accepted_requests_count <> (SELECT COUNT(*) FROM item_requests r " +
+           "      WHERE r.traveler_id = users.id AND r.status IN ('ACCEPTED', 'DELIVERED')) " +
+           "  OR completed_deliveries_count <> (SELECT COUNT(*) FROM item_requests r " +
+           "      WHERE r.traveler_id = users.id AND r.status = 'DELIVERED') " +
+           "  OR completed_trips_count <> (SELECT COUNT(*) FROM trips t " +
+           "      WHERE t.user_id = users.id AND t.status = 'COMPLETED'))",
+           nativeQuery = true)
+    int reconcileReputationCounts(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    /**
+     * Store a recomputed ranking score. Derived data, so updated_at is left alone.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.rankingScore = :score WHERE u.id = :userId")
+    int updateRankingScore(@Param("userId") Long userId, @Param("score") double score);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
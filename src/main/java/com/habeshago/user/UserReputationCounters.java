@@ -0,0 +1,90 @@
+package com.habeshago.user;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Maintains the reputation counters on {@link User}
+ * (accepted_requests_count, completed_deliveries_count, completed_trips_count, last_delivery_at).
+ *
+ * Call these inside the transaction that makes the change. The row is updated with an atomic SQL
+ * increment, so concurrent acceptances or deliveries for the same traveler never lose updates
+ * and the rest of the users row is not rewritten. The loaded entity is shifted by the same delta
+ * so ranking refreshes and DTOs later in the transaction see the new values. A nightly pass
+ * recounts from item_requests and trips, ahead of the ranking recompute.
+ */
+@Component
+public class UserReputationCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(UserReputationCounters.class);
+
+    // Users recounted per reconciliation statement
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    public UserReputationCounters(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Record that {@code traveler} accepted {@code count} requests.
+     */
+    public void requestsAccepted(User traveler, int count) {
+        if (count == 0) {
+            return;
+        }
+        userRepository.incrementAcceptedRequests(traveler.getId(), count);
+        traveler.setAcceptedRequestsCount(
+                (traveler.getAcceptedRequestsCount() != null ? traveler.getAcceptedRequestsCount() : 0) + count);
+    }
+
+    /**
+     * Record that {@code traveler} delivered a request at {@code deliveredAt}.
+     */
+    public void requestDelivered(User traveler, Instant deliveredAt) {
+        userRepository.incrementCompletedDeliveries(traveler.getId(), deliveredAt);
+        traveler.setCompletedDeliveriesCount(
+                (traveler.getCompletedDeliveriesCount() != null ? traveler.getCompletedDeliveriesCount() : 0) + 1);
+        traveler.setLastDeliveryAt(deliveredAt);
+    }
+
+    /**
+     * Record that {@code traveler} completed a trip.
+     */
+    public void tripCompleted(User traveler) {
+        userRepository.incrementCompletedTrips(traveler.getId());
+        traveler.setCompletedTripsCount(
+                (traveler.getCompletedTripsCount() != null ? traveler.getCompletedTripsCount() : 0) + 1);
+    }
+
+    // Before TravelerRanking's nightly recompute (03:45), which then scores the repaired counts
+    @Scheduled(cron = "0 35 3 * * *")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Recount every user's counters from item_requests and trips and repair the ones that
+     * drifted. Works in id ranges so each statement stays short.
+     * @return number of users repaired
+     */
+    public int reconcile() {
+        Long maxId = userRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        int repaired = 0;
+        for (long afterId = 0; afterId < maxId; afterId += RECONCILE_CHUNK_SIZE) {
+            repaired += userRepository.reconcileReputationCounts(afterId, afterId + RECONCILE_CHUNK_SIZE);
+        }
+        if (repaired > 0) {
+            log.warn("Repaired reputation counters on {} users", repaired);
+        }
+        return repaired;
+    }
+}
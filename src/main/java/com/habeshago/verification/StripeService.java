@@ -1,5 +1,6 @@
 package com.habeshago.verification;
 
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
 import com.habeshago.user.UserRepository;
 import com.stripe.Stripe;
@@ -17,6 +18,7 @@ import java.time.Instant;
 public class StripeService {
 
     private final UserRepository userRepository;
+    private final TravelerRanking travelerRanking;
 
     @Value("${habeshago.stripe.secret-key:}")
     private String stripeSecretKey;
@@ -30,8 +32,9 @@ public class StripeService {
     @Value("${habeshago.stripe.cancel-url:https://habeshago.pages.dev/verification/cancel}")
     private String cancelUrl;
 
-    public StripeService(UserRepository userRepository) {
+    public StripeService(UserRepository userRepository, TravelerRanking travelerRanking) {
         this.userRepository = userRepository;
+        this.travelerRanking = travelerRanking;
     }
 
     @PostConstruct
@@ -121,6 +124,7 @@ public class StripeService {
             // Mark user as verified
             user.setVerified(true);
             user.setVerifiedAt(Instant.now());
+            travelerRanking.refresh(user);
 
             return userRepository.save(user);
 
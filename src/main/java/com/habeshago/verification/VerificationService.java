@@ -2,6 +2,7 @@ package com.habeshago.verification;
 
 import com.habeshago.common.BadRequestException;
 import com.habeshago.telegram.TelegramClient;
+import com.habeshago.user.TravelerRanking;
 import com.habeshago.user.User;
 import com.habeshago.user.UserRepository;
 import org.slf4j.Logger;
@@ -35,6 +36,7 @@ public class VerificationService {
     );
 
     private final UserRepository userRepository;
+    private final TravelerRanking travelerRanking;
     private final SmsService smsService;
     private final StorageService storageService;
     private final TelegramClient telegramClient;
@@ -54,8 +56,10 @@ public class VerificationService {
             SmsService smsService,
             StorageService storageService,
             TelegramClient telegramClient,
-            @Value("${habeshago.admin.telegram-id:}") String adminTelegramIdStr) {
+            @Value("${habeshago.admin.telegram-id:}") String adminTelegramIdStr,
+            TravelerRanking travelerRanking) {
         this.userRepository = userRepository;
+        this.travelerRanking = travelerRanking;
         this.smsService = smsService;
         this.storageService = storageService;
         this.telegramClient = telegramClient;
@@ -255,6 +259,7 @@ public class VerificationService {
         user.setVerificationStatus(VerificationStatus.APPROVED);
         user.setVerified(true);
         user.setVerifiedAt(Instant.now());
+        travelerRanking.refresh(user);
 
         return userRepository.save(user);
     }
@@ -0,0 +1,21 @@
+-- V10: Visibility-aware trip search
+-- Trips carry a maintained "listable" flag that is false while the owner is
+-- suspended or deleted, so search can filter owner visibility without joining
+-- users. Search only ever reads OPEN, listable trips, so the search indexes
+-- are partial and cover just that hot set.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS listable BOOLEAN NOT NULL DEFAULT TRUE;
+
+UPDATE trips t SET listable = FALSE
+FROM users u
+WHERE u.id = t.user_id AND (u.suspended = TRUE OR u.deleted = TRUE);
+
+-- Keyset order for paginated and unfiltered search
+CREATE INDEX IF NOT EXISTS idx_trip_listable_departure
+    ON trips (departure_date, id)
+    WHERE status = 'OPEN' AND listable = TRUE;
+
+-- City lookups (LOWER(city) IN (...)) restricted to listable trips
+CREATE INDEX IF NOT EXISTS idx_trip_listable_route
+    ON trips (LOWER(from_city), LOWER(to_city), departure_date)
+    WHERE status = 'OPEN' AND listable = TRUE;
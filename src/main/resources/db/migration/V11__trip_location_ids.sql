@@ -0,0 +1,12 @@
+-- V11: Location dictionary ids on trips
+-- from_location_id/to_location_id hold ids from the bundled location dataset
+-- (src/main/resources/locations/locations.json), resolved from the free-text
+-- city/country/airport fields when a trip is saved. Existing rows are filled
+-- in by the application at startup (TripLocationBackfill). The ids are not
+-- foreign keys: the dictionary lives in the application, not the database.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS from_location_id BIGINT;
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS to_location_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_trip_from_location ON trips (from_location_id, departure_date);
+CREATE INDEX IF NOT EXISTS idx_trip_to_location ON trips (to_location_id, departure_date);
@@ -0,0 +1,23 @@
+-- V12: Denormalized request counters on trips
+-- request_count, pending_request_count and accepted_request_count are kept in
+-- step with item_requests by atomic increments on every request status change
+-- (TripRequestCounters), so reading a trip's counts or edit/cancel eligibility
+-- no longer loads its requests. A scheduled reconciliation repairs any drift.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS request_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS pending_request_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS accepted_request_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE trips t SET
+    request_count = c.total,
+    pending_request_count = c.pending,
+    accepted_request_count = c.accepted
+FROM (
+    SELECT trip_id,
+           COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+           COUNT(*) FILTER (WHERE status = 'ACCEPTED') AS accepted
+    FROM item_requests
+    GROUP BY trip_id
+) c
+WHERE c.trip_id = t.id;
@@ -0,0 +1,16 @@
+-- V13: Route calendar rollups
+-- One row per route and departure day with the number of open, listable trips,
+-- covering the next 90 days. Maintained incrementally from trip lifecycle
+-- events and rebuilt nightly by RouteRollups; trending routes and route
+-- calendars are served from an in-memory copy of this table.
+
+CREATE TABLE IF NOT EXISTS route_day_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    from_key VARCHAR(120) NOT NULL,
+    to_key VARCHAR(120) NOT NULL,
+    from_label VARCHAR(100) NOT NULL,
+    to_label VARCHAR(100) NOT NULL,
+    departure_date DATE NOT NULL,
+    open_trips INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_route_day_rollup UNIQUE (from_key, to_key, departure_date)
+);
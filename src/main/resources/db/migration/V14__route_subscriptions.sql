@@ -0,0 +1,22 @@
+-- V14: Route subscriptions (route alerts)
+-- A sender saves a route with an optional departure window and capacity type
+-- and is notified when a matching trip is created. from_key/to_key are the
+-- normalized place keys the in-memory matching index is built on
+-- (loc:<location id> or city:<normalized name>).
+
+CREATE TABLE IF NOT EXISTS route_subscriptions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    from_city VARCHAR(100) NOT NULL,
+    to_city VARCHAR(100) NOT NULL,
+    from_key VARCHAR(120) NOT NULL,
+    to_key VARCHAR(120) NOT NULL,
+    date_from DATE,
+    date_to DATE,
+    capacity_type VARCHAR(20),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_subscription_user ON route_subscriptions (user_id);
+CREATE INDEX IF NOT EXISTS idx_subscription_active ON route_subscriptions (active, date_to);
@@ -0,0 +1,23 @@
+-- V15: Folded city search keys on trips
+-- from_city_key/to_city_key hold SearchKeys.fold(city): NFKC, case folded,
+-- Ge'ez transliterated to Latin and with common spelling variants collapsed,
+-- so "Mekelle", "Mek'ele" and "መቀሌ" share one key. Search filters by equality
+-- on these keys instead of LOWER(city). Existing rows are filled in by the
+-- application at startup (TripLocationBackfill); the folding runs in Java, so
+-- it cannot be expressed here.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS from_city_key VARCHAR(255);
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS to_city_key VARCHAR(255);
+
+-- City lookups (city_key IN (...)) restricted to the OPEN, listable hot set,
+-- like the V10 indexes they replace
+CREATE INDEX IF NOT EXISTS idx_trip_search_city_key
+    ON trips (from_city_key, to_city_key, departure_date)
+    WHERE status = 'OPEN' AND listable = TRUE;
+CREATE INDEX IF NOT EXISTS idx_trip_to_city_key
+    ON trips (to_city_key, departure_date)
+    WHERE status = 'OPEN' AND listable = TRUE;
+
+-- Search no longer filters on LOWER(city), so these are unused
+DROP INDEX IF EXISTS idx_trip_search_lower;
+DROP INDEX IF EXISTS idx_trip_listable_route;
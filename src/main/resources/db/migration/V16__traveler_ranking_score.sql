@@ -0,0 +1,15 @@
+-- V16: Precomputed traveler ranking for sort=relevance search
+-- ranking_score (0-100) is computed in the application (TravelerRanking) from
+-- rating, completion rate, trust score, verification and last_delivery_at.
+-- Existing users are scored at startup; afterwards it is refreshed on reviews,
+-- acceptances, deliveries, reports and verification, and nightly for decay.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_delivery_at TIMESTAMPTZ;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS ranking_score DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- sort=relevance pages order by (ranking_score DESC, users.id, trips.id): walk
+-- travelers best-first, then each traveler's searchable trips in id order
+CREATE INDEX IF NOT EXISTS idx_users_ranking_score ON users (ranking_score DESC, id);
+CREATE INDEX IF NOT EXISTS idx_trip_listable_user
+    ON trips (user_id, id)
+    WHERE status = 'OPEN' AND listable = TRUE;
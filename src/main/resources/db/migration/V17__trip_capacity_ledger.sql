@@ -0,0 +1,20 @@
+-- V17: Trip capacity ledger and optimistic locking
+-- remaining_weight_kg is max_weight_kg minus the weight of accepted and
+-- delivered requests. The application decrements it with a conditional update
+-- when a request is accepted, so concurrent accepts cannot overbook a trip.
+-- NULL means the trip has no max weight and takes any weight.
+-- version backs JPA optimistic locking on trips and item requests.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS remaining_weight_kg DECIMAL(10,2);
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE item_requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE trips t SET remaining_weight_kg = t.max_weight_kg - COALESCE(
+    (SELECT SUM(r.weight_kg) FROM item_requests r
+     WHERE r.trip_id = t.id AND r.status IN ('ACCEPTED', 'DELIVERED')), 0)
+WHERE t.max_weight_kg IS NOT NULL;
+
+-- minRemainingKg search filter over listable trips
+CREATE INDEX IF NOT EXISTS idx_trip_listable_remaining
+    ON trips (remaining_weight_kg, departure_date)
+    WHERE status = 'OPEN' AND listable = TRUE;
@@ -0,0 +1,15 @@
+-- V18: Traveler incoming-requests inbox
+-- item_requests carries its trip's owner (trips never change owner), so a
+-- traveler's requests across all trips, filtered by status and ordered by
+-- created_at, are one range scan instead of a join through trips.
+
+ALTER TABLE item_requests ADD COLUMN IF NOT EXISTS traveler_id BIGINT REFERENCES users(id);
+
+UPDATE item_requests r SET traveler_id = t.user_id
+FROM trips t
+WHERE t.id = r.trip_id AND r.traveler_id IS NULL;
+
+ALTER TABLE item_requests ALTER COLUMN traveler_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_request_traveler_status_created
+    ON item_requests (traveler_id, status, created_at DESC, id DESC);
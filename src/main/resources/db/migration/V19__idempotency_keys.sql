@@ -0,0 +1,16 @@
+-- V19: Idempotency-Key store shared by all instances
+-- One row per (user, key). status_code is NULL while the first request is
+-- still running; afterwards the row holds the response replayed to retries.
+-- Rows expire after habeshago.idempotency.ttl and are purged hourly.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(300) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    body TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
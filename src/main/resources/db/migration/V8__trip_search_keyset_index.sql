@@ -0,0 +1,5 @@
+-- V8: Keyset pagination support for trip search
+-- Paginated search orders by (departure_date, id) within a status, so this index
+-- lets each page be read as a bounded range scan starting after the cursor.
+
+CREATE INDEX IF NOT EXISTS idx_trip_status_departure ON trips(status, departure_date, id);
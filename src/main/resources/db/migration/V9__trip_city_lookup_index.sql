@@ -0,0 +1,7 @@
+-- V9: Index-backed city lookups for trip search
+-- Search now resolves free-text city input to stored city values in-process
+-- (CityNameIndex) and filters with LOWER(city) IN (...), replacing the
+-- leading-wildcard LIKE that forced a sequential scan of trips.
+
+CREATE INDEX IF NOT EXISTS idx_trip_search_lower
+    ON trips (LOWER(from_city), LOWER(to_city), departure_date);